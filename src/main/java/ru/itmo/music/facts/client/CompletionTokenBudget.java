@@ -0,0 +1,71 @@
+package ru.itmo.music.facts.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.itmo.music.facts.client.ProxyApiClient.Usage;
+import ru.itmo.music.facts.config.AdaptiveMaxTokensProperties;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.config.ProxyApiProperties;
+
+/**
+ * Accounts tokens reported in completion {@code usage} and derives {@code max_tokens} for one fact from the
+ * observed completion length distribution.
+ */
+@Component
+public class CompletionTokenBudget {
+
+    private static final String TOKENS_METRIC = "facts.llm.tokens";
+
+    private final LlmProperties llmProperties;
+    private final MeterRegistry meterRegistry;
+    private final SlidingWindow completionTokens;
+
+    public CompletionTokenBudget(LlmProperties llmProperties, MeterRegistry meterRegistry) {
+        this.llmProperties = llmProperties;
+        this.meterRegistry = meterRegistry;
+        this.completionTokens = new SlidingWindow(llmProperties.getProxyapi().getAdaptiveMaxTokens().getWindowSize());
+    }
+
+    /**
+     * Records usage of one completion; {@code facts} is the number of facts it contained (languages).
+     */
+    public void record(Usage usage, int facts, boolean truncated) {
+        if (truncated) {
+            meterRegistry.counter("facts.llm.truncated").increment();
+        }
+        if (usage == null) {
+            return;
+        }
+        count("prompt", usage.prompt_tokens());
+        count("completion", usage.completion_tokens());
+        if (usage.prompt_tokens_details() != null) {
+            count("cached", usage.prompt_tokens_details().cached_tokens());
+        }
+        // Обрезанные ответы тоже учитываем: их длина равна лимиту, и factor поднимает следующий лимит выше.
+        if (usage.completion_tokens() != null) {
+            completionTokens.add(usage.completion_tokens() / Math.max(facts, 1));
+        }
+    }
+
+    /**
+     * Returns {@code max_tokens} for a completion with one fact.
+     */
+    public int maxTokensPerFact() {
+        ProxyApiProperties properties = llmProperties.getProxyapi();
+        AdaptiveMaxTokensProperties adaptive = properties.getAdaptiveMaxTokens();
+        Long observed = Boolean.TRUE.equals(adaptive.getEnabled())
+                ? completionTokens.percentile(adaptive.getPercentile(), adaptive.getMinSamples())
+                : null;
+        if (observed == null) {
+            return properties.getMaxTokens();
+        }
+        int tokens = (int) Math.ceil(observed * adaptive.getFactor());
+        return Math.clamp(tokens, Math.min(adaptive.getMinTokens(), properties.getMaxTokens()), properties.getMaxTokens());
+    }
+
+    private void count(String type, Integer tokens) {
+        if (tokens != null && tokens > 0) {
+            meterRegistry.counter(TOKENS_METRIC, "type", type).increment(tokens);
+        }
+    }
+}
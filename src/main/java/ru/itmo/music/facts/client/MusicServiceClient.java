@@ -3,6 +3,8 @@ package ru.itmo.music.facts.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.itmo.music.facts.model.TrackIdsPage;
 import ru.itmo.music.facts.model.TrackMetadata;
 
 /**
@@ -13,4 +15,10 @@ public interface MusicServiceClient {
 
     @GetMapping("/internal/tracks/{trackId}")
     TrackMetadata getTrack(@PathVariable("trackId") String trackId);
+
+    /**
+     * Stable-ordered catalog listing required by backfill runs without a file; the contract is in the README.
+     */
+    @GetMapping("/internal/tracks/ids")
+    TrackIdsPage listTrackIds(@RequestParam("page") int page, @RequestParam("size") int size);
 }
@@ -1,7 +1,10 @@
 package ru.itmo.music.facts.client;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 import ru.itmo.music.facts.config.LlmProperties;
 import ru.itmo.music.facts.config.ProxyApiProperties;
@@ -23,10 +27,19 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @Slf4j
 public class ProxyApiClient {
 
+    private static final double RETRY_JITTER = 0.4;
+
     private final LlmProperties llmProperties;
     private final WebClient.Builder webClientBuilder;
+    private final ProxyApiLatencyTracker latencyTracker;
+    private final RetryBudget retryBudget;
+    private volatile WebClient webClient;
 
-    public String complete(List<Message> messages) {
+    /**
+     * Requests a completion; each attempt is bounded by the adaptive timeout and by {@code deadline} (nullable),
+     * retries stop once the deadline passes or the global retry budget is exhausted.
+     */
+    public Completion complete(List<Message> messages, int maxTokens, Instant deadline) {
         ProxyApiProperties properties = llmProperties.getProxyapi();
         ensureApiKey();
         log.info("Calling ProxyAPI model={} baseUrl={} messages={}", properties.getModel(), properties.getBaseUrl(), messages.size());
@@ -34,35 +47,111 @@ public class ProxyApiClient {
                 properties.getModel(),
                 messages,
                 properties.getTemperature(),
-                properties.getMaxTokens(),
+                maxTokens,
                 new ResponseFormat("json_object")
         );
 
-        return webClientBuilder
-                .baseUrl(properties.getBaseUrl())
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + properties.getApiKey())
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build()
+        retryBudget.recordRequest();
+        // Флаг читаем в вызывающем потоке: ретраи выполняются уже на потоках Reactor.
+        boolean background = RetryBudget.isBackground();
+        return Mono.defer(() -> attempt(webClient(), request, deadline))
+                .retryWhen(buildRetrySpec(deadline, background))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("ProxyAPI returned empty body")))
+                .doOnSuccess(completion -> log.info("ProxyAPI responded with {} chars, usage={}, finishReason={}",
+                        completion.content() != null ? completion.content().length() : 0, completion.usage(), completion.finishReason()))
+                .doOnError(ex -> log.warn("ProxyAPI call failed: {}", ex.getMessage()))
+                .block();
+    }
+
+    /**
+     * Opens a pooled connection to ProxyAPI (DNS, TLS, Netty and codec initialization) with a cheap model listing.
+     */
+    public void warmUp() {
+        ensureApiKey();
+        webClient()
+                .get()
+                .uri("/models")
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofMillis(llmProperties.getProxyapi().getTimeoutMs()))
+                .block();
+    }
+
+    /**
+     * One client per process so the connection pool is shared between calls and warmed up at startup.
+     */
+    private WebClient webClient() {
+        WebClient client = webClient;
+        if (client == null) {
+            ProxyApiProperties properties = llmProperties.getProxyapi();
+            client = webClientBuilder.clone()
+                    .baseUrl(properties.getBaseUrl())
+                    .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + properties.getApiKey())
+                    .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .build();
+            webClient = client;
+        }
+        return client;
+    }
+
+    private Mono<Completion> attempt(WebClient webClient, ChatCompletionRequest request, Instant deadline) {
+        Duration adaptiveTimeout = latencyTracker.attemptTimeout();
+        Duration timeout = boundedByDeadline(adaptiveTimeout, deadline);
+        if (timeout.isZero()) {
+            return Mono.error(new TimeoutException("Event deadline " + deadline + " passed before ProxyAPI attempt"));
+        }
+        long startedNanos = System.nanoTime();
+        return webClient
                 .post()
                 .uri("/chat/completions")
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(ChatCompletionResponse.class)
-                .map(ProxyApiClient::firstMessageContent)
-                .timeout(Duration.ofMillis(properties.getTimeoutMs()))
-                .retryWhen(buildRetrySpec())
-                .doOnSuccess(content -> log.info("ProxyAPI responded with {} chars", content != null ? content.length() : 0))
-                .doOnError(ex -> log.warn("ProxyAPI call failed: {}", ex.getMessage()))
-                .block();
+                .map(ProxyApiClient::toCompletion)
+                .timeout(timeout)
+                .doOnSuccess(content -> latencyTracker.record(Duration.ofNanos(System.nanoTime() - startedNanos)))
+                .doOnError(TimeoutException.class, ex -> {
+                    // Таймаут, укороченный дедлайном события, ничего не говорит о латентности провайдера.
+                    if (timeout.equals(adaptiveTimeout)) {
+                        latencyTracker.record(timeout);
+                    }
+                });
     }
 
-    private Retry buildRetrySpec() {
+    private static Duration boundedByDeadline(Duration timeout, Instant deadline) {
+        if (deadline == null) {
+            return timeout;
+        }
+        Duration remaining = Duration.between(Instant.now(), deadline);
+        if (remaining.isNegative() || remaining.isZero()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Exponential backoff with jitter; the retry budget is consulted last, so a token is only spent on a retry
+     * that is actually going to happen.
+     */
+    private Retry buildRetrySpec(Instant deadline, boolean background) {
         ProxyApiProperties properties = llmProperties.getProxyapi();
-        long backoff = properties.getRetry().getBackoffMs();
-        int attempts = properties.getRetry().getMaxAttempts();
-        return Retry.backoff(Math.max(attempts, 1), Duration.ofMillis(Math.max(backoff, 1)))
-                .jitter(0.4)
-                .filter(this::isRetryable);
+        long backoffMs = Math.max(properties.getRetry().getBackoffMs(), 1);
+        int maxRetries = Math.max(properties.getRetry().getMaxAttempts(), 1);
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            long retries = signal.totalRetries();
+            Throwable failure = signal.failure();
+            boolean retry = retries < maxRetries
+                    && isRetryable(failure)
+                    && (deadline == null || Instant.now().isBefore(deadline))
+                    && retryBudget.tryAcquireRetry(background);
+            return retry ? Mono.delay(backoffDelay(backoffMs, retries)) : Mono.<Long>error(failure);
+        }));
+    }
+
+    private static Duration backoffDelay(long backoffMs, long retries) {
+        long base = backoffMs << Math.min(retries, 16);
+        double jitter = ThreadLocalRandom.current().nextDouble(-RETRY_JITTER, RETRY_JITTER);
+        return Duration.ofMillis(Math.max(Math.round(base * (1 + jitter)), backoffMs));
     }
 
     private boolean isRetryable(Throwable throwable) {
@@ -79,14 +168,15 @@ public class ProxyApiClient {
         }
     }
 
-    private static String firstMessageContent(ChatCompletionResponse response) {
+    private static Completion toCompletion(ChatCompletionResponse response) {
         if (response == null
                 || response.choices == null
                 || response.choices.isEmpty()
                 || response.choices.getFirst().message == null) {
             throw new IllegalStateException("ProxyAPI returned empty choices");
         }
-        return response.choices.getFirst().message.content;
+        Choice choice = response.choices.getFirst();
+        return new Completion(choice.message.content, response.usage, choice.finish_reason);
     }
 
     public record Message(String role, String content) {
@@ -105,10 +195,34 @@ public class ProxyApiClient {
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    public record ChatCompletionResponse(List<Choice> choices) {
+    public record ChatCompletionResponse(List<Choice> choices, Usage usage) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Message message, String finish_reason) {
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    public record Choice(Message message) {
+    public record Usage(
+            Integer prompt_tokens,
+            Integer completion_tokens,
+            Integer total_tokens,
+            PromptTokensDetails prompt_tokens_details
+    ) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PromptTokensDetails(Integer cached_tokens) {
+    }
+
+    /**
+     * Content of the first choice together with token usage; {@code finishReason} is "length" when the
+     * completion was cut by {@code max_tokens}.
+     */
+    public record Completion(String content, Usage usage, String finishReason) {
+
+        public boolean truncated() {
+            return "length".equals(finishReason);
+        }
     }
 }
@@ -0,0 +1,47 @@
+package ru.itmo.music.facts.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.stereotype.Component;
+import ru.itmo.music.facts.config.AdaptiveTimeoutProperties;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.config.ProxyApiProperties;
+
+/**
+ * Keeps a sliding window of recent ProxyAPI attempt latencies and derives the per-attempt timeout from them.
+ */
+@Component
+public class ProxyApiLatencyTracker {
+
+    private final LlmProperties llmProperties;
+    private final SlidingWindow latencies;
+
+    public ProxyApiLatencyTracker(LlmProperties llmProperties, MeterRegistry meterRegistry) {
+        this.llmProperties = llmProperties;
+        this.latencies = new SlidingWindow(llmProperties.getProxyapi().getAdaptiveTimeout().getWindowSize());
+        Gauge.builder("facts.llm.attempt.timeout", this, tracker -> tracker.attemptTimeout().toMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the duration of one attempt; attempts that hit the adaptive timeout are recorded with it.
+     */
+    public void record(Duration latency) {
+        latencies.add(latency.toMillis());
+    }
+
+    public Duration attemptTimeout() {
+        ProxyApiProperties properties = llmProperties.getProxyapi();
+        AdaptiveTimeoutProperties adaptive = properties.getAdaptiveTimeout();
+        Long observed = Boolean.TRUE.equals(adaptive.getEnabled())
+                ? latencies.percentile(adaptive.getPercentile(), adaptive.getMinSamples())
+                : null;
+        if (observed == null) {
+            return Duration.ofMillis(properties.getTimeoutMs());
+        }
+        long timeout = (long) (observed * adaptive.getFactor());
+        return Duration.ofMillis(Math.clamp(timeout, Math.min(adaptive.getMinMs(), adaptive.getMaxMs()), adaptive.getMaxMs()));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.itmo.music.facts.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.config.RetryBudgetProperties;
+
+/**
+ * Token bucket shared by all ProxyAPI calls so that retries stay within a fixed share of total traffic
+ * and a degraded provider is not hit with a retry storm. Background calls (backfill) may only retry while the
+ * bucket is more than half full, so they cannot drain the retries live traffic relies on.
+ */
+@Component
+public class RetryBudget {
+
+    private static final ThreadLocal<Boolean> BACKGROUND = new ThreadLocal<>();
+
+    private final LlmProperties llmProperties;
+    private final Counter deniedRetries;
+    private double balance;
+
+    public RetryBudget(LlmProperties llmProperties, MeterRegistry meterRegistry) {
+        this.llmProperties = llmProperties;
+        this.deniedRetries = meterRegistry.counter("facts.llm.retry.budget.denied");
+        this.balance = capacity();
+    }
+
+    public synchronized void recordRequest() {
+        balance = Math.min(capacity(), balance + llmProperties.getProxyapi().getRetryBudget().getRatio());
+    }
+
+    /**
+     * Runs {@code action} with ProxyAPI calls made on the current thread treated as background work.
+     */
+    public static void runAsBackground(Runnable action) {
+        BACKGROUND.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            BACKGROUND.remove();
+        }
+    }
+
+    public static boolean isBackground() {
+        return Boolean.TRUE.equals(BACKGROUND.get());
+    }
+
+    public boolean tryAcquireRetry() {
+        return tryAcquireRetry(false);
+    }
+
+    public synchronized boolean tryAcquireRetry(boolean background) {
+        double reserve = background ? capacity() / 2 : 0.0;
+        if (balance - reserve >= 1.0) {
+            balance -= 1.0;
+            return true;
+        }
+        deniedRetries.increment();
+        return false;
+    }
+
+    private double capacity() {
+        RetryBudgetProperties budget = llmProperties.getProxyapi().getRetryBudget();
+        return Math.max(budget.getMinRetries(), 1);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.itmo.music.facts.client;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of recent observations with nearest-rank percentiles.
+ */
+class SlidingWindow {
+
+    private final long[] values;
+    private int next;
+    private int size;
+
+    SlidingWindow(int capacity) {
+        this.values = new long[Math.max(capacity, 1)];
+    }
+
+    synchronized void add(long value) {
+        values[next] = value;
+        next = (next + 1) % values.length;
+        size = Math.min(size + 1, values.length);
+    }
+
+    /**
+     * Returns the given percentile, or null while fewer than {@code minSamples} values are recorded.
+     */
+    synchronized Long percentile(double quantile, int minSamples) {
+        if (size < Math.max(minSamples, 1)) {
+            return null;
+        }
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return sorted[Math.clamp(index, 0, size - 1)];
+    }
+}
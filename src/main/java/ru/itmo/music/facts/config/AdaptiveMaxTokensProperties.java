@@ -0,0 +1,18 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+
+/**
+ * Per-fact {@code max_tokens} derived from observed completion lengths: percentile x factor, clamped to
+ * [minTokens, max-tokens]. Until {@code minSamples} completions are observed the static {@code max-tokens} is used.
+ */
+@Data
+public class AdaptiveMaxTokensProperties {
+
+    private Boolean enabled = true;
+    private Double percentile = 0.99;
+    private Double factor = 1.3;
+    private Integer minTokens = 200;
+    private Integer minSamples = 50;
+    private Integer windowSize = 1_000;
+}
@@ -0,0 +1,19 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+
+/**
+ * Per-attempt ProxyAPI timeout derived from observed latency: percentile x factor, clamped to [minMs, maxMs].
+ * Until {@code minSamples} latencies are observed the static {@code timeout-ms} is used.
+ */
+@Data
+public class AdaptiveTimeoutProperties {
+
+    private Boolean enabled = true;
+    private Double percentile = 0.99;
+    private Double factor = 1.5;
+    private Long minMs = 2_000L;
+    private Long maxMs = 10_000L;
+    private Integer minSamples = 50;
+    private Integer windowSize = 1_000;
+}
@@ -0,0 +1,43 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk backfill runs that regenerate facts for a range of catalog tracks.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.backfill")
+public class BackfillProperties {
+
+    /**
+     * Max tracks per second pushed through the generation pipeline.
+     */
+    private Double ratePerSecond = 1.0;
+
+    /**
+     * Max tracks processed in parallel; throughput is bounded by both this and {@code ratePerSecond}.
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * Page size used when listing track ids from Music Service.
+     */
+    private Integer pageSize = 500;
+
+    /**
+     * File where progress is stored so an interrupted run can be resumed. Must be set explicitly and point to
+     * a persistent volume; a backfill cannot start without it.
+     */
+    private String checkpointFile;
+
+    /**
+     * Persist the checkpoint after every N consumed track ids.
+     */
+    private Integer checkpointEvery = 50;
+
+    /**
+     * Event type passed to the generation pipeline for backfilled tracks.
+     */
+    private String eventType = "refresh";
+}
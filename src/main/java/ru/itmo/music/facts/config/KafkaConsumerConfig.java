@@ -8,6 +8,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import ru.itmo.music.facts.service.DeadlineExceededException;
 import ru.itmo.music.facts.service.TrackNotFoundException;
 
 /**
@@ -30,7 +31,7 @@ public class KafkaConsumerConfig {
         backOff.setMultiplier(2.0);
 
         DefaultErrorHandler handler = new DefaultErrorHandler(recoverer, backOff);
-        handler.addNotRetryableExceptions(JacksonException.class, TrackNotFoundException.class);
+        handler.addNotRetryableExceptions(JacksonException.class, TrackNotFoundException.class, DeadlineExceededException.class);
         return handler;
     }
 }
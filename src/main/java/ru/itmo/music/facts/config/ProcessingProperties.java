@@ -0,0 +1,17 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for processing incoming facts events.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.processing")
+public class ProcessingProperties {
+
+    /**
+     * Max age of an event (from its timestamp) after which generation is abandoned; 0 disables the deadline.
+     */
+    private Long eventDeadlineMs = 0L;
+}
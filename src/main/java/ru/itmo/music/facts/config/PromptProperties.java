@@ -1,5 +1,7 @@
 package ru.itmo.music.facts.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Data;
 
 /**
@@ -11,4 +13,18 @@ public class PromptProperties {
     private Integer formatVersion = 1;
     private String lang = "ru";
     private Integer maxSources = 3;
+
+    /**
+     * Languages generated together in one completion; when empty only {@code lang} is generated.
+     */
+    private List<String> langs = new ArrayList<>();
+
+    public List<String> resolveLangs() {
+        List<String> resolved = langs == null ? List.of() : langs.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .toList();
+        return resolved.isEmpty() ? List.of(lang) : resolved;
+    }
 }
@@ -16,4 +16,7 @@ public class ProxyApiProperties {
     private Integer maxTokens = 600;
     private RetryProperties retry = new RetryProperties();
     private RetryProperties formatRetry = new RetryProperties(2, 400L);
+    private AdaptiveTimeoutProperties adaptiveTimeout = new AdaptiveTimeoutProperties();
+    private RetryBudgetProperties retryBudget = new RetryBudgetProperties();
+    private AdaptiveMaxTokensProperties adaptiveMaxTokens = new AdaptiveMaxTokensProperties();
 }
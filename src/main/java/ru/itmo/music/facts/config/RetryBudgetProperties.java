@@ -0,0 +1,13 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+
+/**
+ * Global cap on transport retries: each request earns {@code ratio} of a retry, at most {@code minRetries} are banked.
+ */
+@Data
+public class RetryBudgetProperties {
+
+    private Double ratio = 0.1;
+    private Integer minRetries = 10;
+}
@@ -0,0 +1,20 @@
+package ru.itmo.music.facts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Startup warm-up settings: outbound clients, Jackson and the Kafka producer are initialized before the
+ * listener joins the consumer group.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+    private Boolean enabled = true;
+
+    /**
+     * Upper bound for the whole warm-up; the listener is started anyway once it elapses.
+     */
+    private Long timeoutMs = 10_000L;
+}
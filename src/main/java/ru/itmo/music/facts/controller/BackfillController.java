@@ -0,0 +1,56 @@
+package ru.itmo.music.facts.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itmo.music.facts.model.BackfillRequest;
+import ru.itmo.music.facts.model.BackfillStatus;
+import ru.itmo.music.facts.service.BackfillAlreadyRunningException;
+import ru.itmo.music.facts.service.BackfillService;
+
+/**
+ * Internal endpoints to start, stop and monitor bulk backfill runs.
+ */
+@RestController
+@RequestMapping("/internal/backfill")
+@RequiredArgsConstructor
+public class BackfillController {
+
+    private final BackfillService backfillService;
+
+    @PostMapping
+    public ResponseEntity<BackfillStatus> start(@RequestBody(required = false) BackfillRequest request) {
+        return ResponseEntity.accepted().body(backfillService.start(request));
+    }
+
+    @PostMapping("/stop")
+    public BackfillStatus stop() {
+        return backfillService.stop();
+    }
+
+    @GetMapping
+    public BackfillStatus status() {
+        return backfillService.status();
+    }
+
+    @ExceptionHandler(BackfillAlreadyRunningException.class)
+    public ResponseEntity<String> onConflict(BackfillAlreadyRunningException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> onMisconfigured(IllegalStateException ex) {
+        return ResponseEntity.internalServerError().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> onBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -0,0 +1,11 @@
+package ru.itmo.music.facts.model;
+
+/**
+ * Command to start a backfill run: reads track ids from a file (one per line) or, when no file is given,
+ * from the paged Music Service catalog listing.
+ */
+public record BackfillRequest(
+        String file,
+        Boolean resume
+) {
+}
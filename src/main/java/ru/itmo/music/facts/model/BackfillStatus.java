@@ -0,0 +1,19 @@
+package ru.itmo.music.facts.model;
+
+import java.time.Instant;
+
+/**
+ * Progress snapshot of a backfill run. {@code total} and {@code etaSeconds} are null when the source size is unknown.
+ */
+public record BackfillStatus(
+        String state,
+        String source,
+        long position,
+        long processed,
+        long failed,
+        Long total,
+        double throughputPerSecond,
+        Long etaSeconds,
+        Instant startedAt
+) {
+}
@@ -5,6 +5,7 @@ package ru.itmo.music.facts.model;
  */
 public record GeneratedFactsPayload(
         String trackId,
+        String lang,
         String factsJson
 ) {
 }
@@ -0,0 +1,14 @@
+package ru.itmo.music.facts.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.List;
+
+/**
+ * One page of track ids from the Music Service catalog listing, used by backfill runs.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TrackIdsPage(
+        List<String> ids,
+        Long total
+) {
+}
@@ -0,0 +1,11 @@
+package ru.itmo.music.facts.service;
+
+/**
+ * Signals that a backfill run was requested while another one is still active on this instance.
+ */
+public class BackfillAlreadyRunningException extends RuntimeException {
+
+    public BackfillAlreadyRunningException(String source) {
+        super("Backfill is already running for source %s".formatted(source));
+    }
+}
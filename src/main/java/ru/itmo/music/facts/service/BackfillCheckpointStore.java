@@ -0,0 +1,74 @@
+package ru.itmo.music.facts.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Persists backfill progress (source + position) as a properties file, replaced atomically on every write.
+ * Ids of failed tracks are appended to a sibling {@code .failed} file, one per line, so they can be re-run as a file.
+ */
+class BackfillCheckpointStore {
+
+    private final Path path;
+
+    BackfillCheckpointStore(Path path) {
+        this.path = path;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    Path failedPath() {
+        return path.resolveSibling(path.getFileName() + ".failed");
+    }
+
+    /**
+     * Returns the stored position for {@code source}, or 0 if there is no checkpoint yet.
+     */
+    long read(String source) throws IOException {
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            checkpoint.load(in);
+        }
+        if (!source.equals(checkpoint.getProperty("source"))) {
+            throw new IllegalArgumentException("Backfill checkpoint %s belongs to source %s, not %s"
+                    .formatted(path, checkpoint.getProperty("source"), source));
+        }
+        return Long.parseLong(checkpoint.getProperty("position", "0"));
+    }
+
+    void write(String source, long position) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("source", source);
+        checkpoint.setProperty("position", Long.toString(position));
+        checkpoint.setProperty("updatedAt", Instant.now().toString());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            checkpoint.store(out, "facts backfill checkpoint");
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Empties the failed ids file at the start of a fresh run.
+     */
+    void resetFailed() throws IOException {
+        Files.write(failedPath(), new byte[0]);
+    }
+
+    synchronized void appendFailed(String trackId) throws IOException {
+        Files.writeString(failedPath(), trackId + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
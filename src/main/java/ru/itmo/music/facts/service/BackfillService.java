@@ -0,0 +1,332 @@
+package ru.itmo.music.facts.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.client.RetryBudget;
+import ru.itmo.music.facts.config.BackfillProperties;
+import ru.itmo.music.facts.model.BackfillRequest;
+import ru.itmo.music.facts.model.BackfillStatus;
+import ru.itmo.music.facts.model.FactsEventPayload;
+
+/**
+ * Streams a range of catalog track ids straight into {@link FactsGenerationService} on a bounded worker pool at
+ * a fixed rate, bypassing the incoming Kafka topic, and checkpoints progress so a run can be resumed.
+ * Run state lives in this instance, so a backfill must be driven against one pinned instance with the checkpoint
+ * file on a persistent volume.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BackfillService implements DisposableBean {
+
+    private static final String MUSIC_SERVICE_SOURCE = "music-service";
+    private static final String EVENT_VERSION = "1";
+    private static final int BACKFILL_PRIORITY = 0;
+    private static final long WORKERS_TERMINATION_TIMEOUT_SECONDS = 30;
+
+    private final FactsGenerationService factsGenerationService;
+    private final MusicServiceClient musicServiceClient;
+    private final BackfillProperties properties;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "facts-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public synchronized BackfillStatus start(BackfillRequest request) {
+        Run running = current.get();
+        if (running != null && running.isActive()) {
+            throw new BackfillAlreadyRunningException(running.source);
+        }
+
+        String file = request != null ? request.file() : null;
+        if (StringUtils.hasText(file) && !Files.isReadable(Path.of(file))) {
+            throw new IllegalArgumentException("Backfill source file is not readable: " + file);
+        }
+        String source = StringUtils.hasText(file) ? "file:" + Path.of(file).toAbsolutePath() : MUSIC_SERVICE_SOURCE;
+        boolean resume = request != null && Boolean.TRUE.equals(request.resume());
+
+        BackfillCheckpointStore checkpoint = checkpointStore();
+        if (StringUtils.hasText(file) && Path.of(file).toAbsolutePath().equals(checkpoint.failedPath().toAbsolutePath())) {
+            // Прогон дописывал бы новые ошибки в файл, который сам же читает.
+            throw new IllegalArgumentException("Copy %s to another file before re-running failed tracks".formatted(file));
+        }
+        long startPosition;
+        try {
+            startPosition = resume ? checkpoint.read(source) : 0L;
+            // Пишем checkpoint сразу, чтобы read-only или отсутствующий том обнаружился до старта прогона.
+            checkpoint.write(source, startPosition);
+            if (!resume) {
+                checkpoint.resetFailed();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Backfill checkpoint %s is not readable or writable".formatted(checkpoint.path()), e);
+        }
+
+        Run run = new Run(source, startPosition, System.nanoTime());
+        current.set(run);
+        log.info("Starting backfill from {} at position {} (rate={}/s, concurrency={}, checkpoint={})",
+                source, startPosition, properties.getRatePerSecond(), properties.getConcurrency(), checkpoint.path());
+        executor.submit(() -> execute(run, file, checkpoint));
+        return run.status(System.nanoTime());
+    }
+
+    public BackfillStatus stop() {
+        Run run = current.get();
+        if (run == null) {
+            return status();
+        }
+        run.stopRequested = true;
+        log.info("Stop requested for backfill from {}", run.source);
+        return run.status(System.nanoTime());
+    }
+
+    public BackfillStatus status() {
+        Run run = current.get();
+        if (run == null) {
+            return new BackfillStatus("IDLE", null, 0, 0, 0, null, 0.0, null, null);
+        }
+        return run.status(System.nanoTime());
+    }
+
+    @Override
+    public void destroy() {
+        Run run = current.get();
+        if (run != null) {
+            run.stopRequested = true;
+        }
+        executor.shutdownNow();
+    }
+
+    private BackfillCheckpointStore checkpointStore() {
+        if (!StringUtils.hasText(properties.getCheckpointFile())) {
+            throw new IllegalStateException("app.backfill.checkpoint-file is not configured; point it to a persistent volume");
+        }
+        return new BackfillCheckpointStore(Path.of(properties.getCheckpointFile()));
+    }
+
+    /**
+     * Reads ids and hands them to the workers at the configured rate; the rate slots are shared by all workers.
+     * The checkpoint stores {@link Run#position}, below which every track has finished, so tracks that were still
+     * in flight are processed again on resume.
+     */
+    private void execute(Run run, String file, BackfillCheckpointStore checkpoint) {
+        int concurrency = Math.max(properties.getConcurrency(), 1);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().daemon().name("facts-backfill-worker-", 0).factory());
+        Semaphore inFlight = new Semaphore(concurrency);
+        try (TrackIdSource source = openSource(file)) {
+            long sequence = run.position.get();
+            if (sequence > 0) {
+                source.skip(sequence);
+            }
+
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(properties.getRatePerSecond(), 0.01));
+            int checkpointEvery = Math.max(properties.getCheckpointEvery(), 1);
+            long saved = sequence;
+            long nextSlot = System.nanoTime();
+            String trackId;
+            while (!run.stopRequested && (trackId = source.next()) != null) {
+                run.total = source.total();
+                nextSlot = awaitSlot(nextSlot, intervalNanos);
+                inFlight.acquire();
+                dispatch(workers, inFlight, run, sequence++, trackId, checkpoint);
+                if (run.position.get() - saved >= checkpointEvery) {
+                    saved = run.position.get();
+                    checkpoint.write(run.source, saved);
+                    logProgress(run.status(System.nanoTime()));
+                }
+            }
+            // Дожидаемся треков в работе, чтобы финальный checkpoint их учёл.
+            inFlight.acquire(concurrency);
+            run.total = source.total();
+            checkpoint.write(run.source, run.position.get());
+            run.state = run.stopRequested ? "STOPPED" : "COMPLETED";
+        } catch (InterruptedException e) {
+            // Снимаем флаг на время записи: FileChannel закрывается при прерывании и checkpoint бы потерялся.
+            Thread.interrupted();
+            stopWorkers(workers, true);
+            saveQuietly(checkpoint, run);
+            run.state = "STOPPED";
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Backfill from {} failed at position {}", run.source, run.position.get(), e);
+            stopWorkers(workers, false);
+            saveQuietly(checkpoint, run);
+            run.state = "FAILED";
+        } finally {
+            workers.shutdownNow();
+        }
+        logProgress(run.status(System.nanoTime()));
+    }
+
+    private void dispatch(ExecutorService workers, Semaphore inFlight, Run run, long sequence, String trackId,
+            BackfillCheckpointStore checkpoint) {
+        workers.execute(() -> {
+            try {
+                process(run, trackId, checkpoint);
+                run.finish(sequence);
+            } catch (InterruptedException e) {
+                // Трек не засчитан, поэтому позиция не пройдёт его и при возобновлении он обработается снова.
+                run.stopRequested = true;
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private static void stopWorkers(ExecutorService workers, boolean interrupt) {
+        if (interrupt) {
+            workers.shutdownNow();
+        } else {
+            workers.shutdown();
+        }
+        try {
+            if (!workers.awaitTermination(WORKERS_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Backfill workers did not finish in {} s", WORKERS_TERMINATION_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TrackIdSource openSource(String file) throws IOException {
+        if (StringUtils.hasText(file)) {
+            return new FileTrackIdSource(Path.of(file));
+        }
+        return new MusicServiceTrackIdSource(musicServiceClient, properties.getPageSize());
+    }
+
+    /**
+     * Sleeps until the given slot if needed and returns the earliest start of the next one.
+     */
+    private static long awaitSlot(long slot, long intervalNanos) throws InterruptedException {
+        long now = System.nanoTime();
+        if (slot > now) {
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+            return slot + intervalNanos;
+        }
+        return now + intervalNanos;
+    }
+
+    /**
+     * Runs one track through the pipeline. An interrupt (shutdown) is rethrown instead of being counted as a
+     * failure, so the position is not advanced and the track is processed again on resume.
+     */
+    private void process(Run run, String trackId, BackfillCheckpointStore checkpoint) throws InterruptedException {
+        FactsEventPayload payload = new FactsEventPayload(
+                EVENT_VERSION, properties.getEventType(), trackId, BACKFILL_PRIORITY, Instant.now());
+        try {
+            // Ретраи бэкфилла не должны съедать общий бюджет ретраев живого трафика.
+            RetryBudget.runAsBackground(() -> factsGenerationService.processBlocking(payload));
+            run.processed.incrementAndGet();
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted() || causedByInterrupt(e)) {
+                throw new InterruptedException("Backfill interrupted while processing track " + trackId);
+            }
+            // Не останавливаем весь прогон из-за одного трека; ошибка уже залогирована пайплайном.
+            run.failed.incrementAndGet();
+            log.warn("Backfill skipped track {}: {}", trackId, e.getMessage());
+            try {
+                checkpoint.appendFailed(trackId);
+            } catch (IOException io) {
+                log.error("Unable to record failed track {} in {}", trackId, checkpoint.failedPath(), io);
+            }
+        }
+    }
+
+    private static boolean causedByInterrupt(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void saveQuietly(BackfillCheckpointStore checkpoint, Run run) {
+        try {
+            checkpoint.write(run.source, run.position.get());
+        } catch (IOException e) {
+            log.error("Unable to write backfill checkpoint {} at position {}", checkpoint.path(), run.position.get(), e);
+        }
+    }
+
+    private static void logProgress(BackfillStatus status) {
+        log.info("Backfill {} from {}: position={}/{}, processed={}, failed={}, throughput={}/s, eta={}s",
+                status.state(), status.source(), status.position(), status.total() != null ? status.total() : "?",
+                status.processed(), status.failed(), "%.2f".formatted(status.throughputPerSecond()),
+                status.etaSeconds() != null ? status.etaSeconds() : "?");
+    }
+
+    static final class Run {
+
+        final String source;
+        final Instant startedAt = Instant.now();
+        final long startedNanos;
+        /**
+         * Every track before this position has finished; tracks after it may still be in flight.
+         */
+        final AtomicLong position;
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile Long total;
+        volatile String state = "RUNNING";
+        volatile boolean stopRequested;
+        private final Set<Long> finishedAhead = new HashSet<>();
+
+        Run(String source, long startPosition, long startedNanos) {
+            this.source = source;
+            this.position = new AtomicLong(startPosition);
+            this.startedNanos = startedNanos;
+        }
+
+        /**
+         * Marks the track at {@code sequence} as finished and advances the position over every finished track.
+         */
+        synchronized void finish(long sequence) {
+            if (sequence != position.get()) {
+                finishedAhead.add(sequence);
+                return;
+            }
+            position.incrementAndGet();
+            while (finishedAhead.remove(position.get())) {
+                position.incrementAndGet();
+            }
+        }
+
+        boolean isActive() {
+            return "RUNNING".equals(state);
+        }
+
+        BackfillStatus status(long nowNanos) {
+            long handled = processed.get() + failed.get();
+            double elapsedSeconds = Duration.ofNanos(nowNanos - startedNanos).toMillis() / 1000.0;
+            double throughput = elapsedSeconds > 0 ? handled / elapsedSeconds : 0.0;
+            Long remaining = total != null ? Math.max(total - position.get(), 0L) : null;
+            Long eta = remaining != null && throughput > 0 ? (long) Math.ceil(remaining / throughput) : null;
+            return new BackfillStatus(state, source, position.get(), processed.get(), failed.get(), total,
+                    throughput, eta, startedAt);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.itmo.music.facts.service;
+
+import java.time.Instant;
+
+/**
+ * Signals that an event can no longer be processed within its deadline, so further work is abandoned.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String trackId, Instant deadline, Throwable cause) {
+        super("Deadline %s exceeded for track %s".formatted(deadline, trackId), cause);
+    }
+}
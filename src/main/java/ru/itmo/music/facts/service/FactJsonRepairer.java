@@ -0,0 +1,140 @@
+package ru.itmo.music.facts.service;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import ru.itmo.music.facts.service.FactsGenerator.FactContent;
+
+/**
+ * Deterministic local repair of malformed LLM fact responses, tried before paying for a format-retry call.
+ * Extracts balanced JSON objects from the text, so prose and markdown fences around them are ignored while
+ * string values are kept verbatim, and parses them leniently
+ * (single quotes, trailing commas, unquoted field names, a single {@code sources} object instead of an array).
+ */
+@Component
+@Slf4j
+public class FactJsonRepairer {
+
+    /**
+     * Max balanced objects tried per response, so garbage input cannot make repair expensive.
+     */
+    private static final int MAX_CANDIDATES = 3;
+
+    private final ObjectReader lenientReader;
+    private final ObjectReader lenientTreeReader;
+
+    public FactJsonRepairer(ObjectMapper objectMapper) {
+        this.lenientTreeReader = objectMapper.reader()
+                .withFeatures(
+                        JsonReadFeature.ALLOW_SINGLE_QUOTES,
+                        JsonReadFeature.ALLOW_TRAILING_COMMA,
+                        JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES,
+                        JsonReadFeature.ALLOW_JAVA_COMMENTS);
+        this.lenientReader = lenientTreeReader.forType(FactContent.class)
+                .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+    }
+
+    /**
+     * Returns the first candidate object that parses leniently and passes {@code validator}, or empty.
+     */
+    public Optional<FactContent> repair(String raw, Consumer<FactContent> validator) {
+        return firstCandidate(raw, candidate -> {
+            FactContent fact = lenientReader.readValue(candidate);
+            validator.accept(fact);
+            return fact;
+        });
+    }
+
+    /**
+     * Leniently converts an already extracted object (e.g. one language of a multi-lang response).
+     */
+    public Optional<FactContent> repair(JsonNode node, Consumer<FactContent> validator) {
+        try {
+            FactContent fact = lenientReader.readValue(node);
+            validator.accept(fact);
+            return Optional.of(fact);
+        } catch (Exception ex) {
+            log.debug("Repair of extracted object rejected: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the first balanced object in {@code raw} that parses leniently as a JSON tree, or empty.
+     */
+    public Optional<JsonNode> extractTree(String raw) {
+        return firstCandidate(raw, lenientTreeReader::readTree);
+    }
+
+    private <T> Optional<T> firstCandidate(String raw, CandidateParser<T> parser) {
+        if (!StringUtils.hasText(raw)) {
+            return Optional.empty();
+        }
+        int from = 0;
+        for (int candidate = 1; candidate <= MAX_CANDIDATES; candidate++) {
+            int start = raw.indexOf('{', from);
+            if (start < 0) {
+                break;
+            }
+            int end = findObjectEnd(raw, start);
+            if (end < 0) {
+                break;
+            }
+            try {
+                return Optional.of(parser.parse(raw.substring(start, end + 1)));
+            } catch (Exception ex) {
+                log.debug("Repair candidate {} rejected: {}", candidate, ex.getMessage());
+            }
+            from = end + 1;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds the index of the brace closing the object opened at {@code start}, ignoring braces inside
+     * single- or double-quoted strings. Returns -1 if the object is not closed (e.g. truncated output).
+     */
+    static int findObjectEnd(String text, int start) {
+        int depth = 0;
+        char quote = 0;
+        boolean escaped = false;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"', '\'' -> quote = c;
+                case '{' -> depth++;
+                case '}' -> {
+                    if (--depth == 0) {
+                        return i;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface CandidateParser<T> {
+
+        T parse(String candidate) throws Exception;
+    }
+}
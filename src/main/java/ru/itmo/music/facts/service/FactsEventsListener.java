@@ -18,15 +18,23 @@ import ru.itmo.music.facts.model.FactsEventPayload;
 @Slf4j
 public class FactsEventsListener {
 
+    /**
+     * Listener is started by {@link StartupWarmup} after warm-up, so it joins the consumer group only when ready.
+     */
+    public static final String LISTENER_ID = "facts-events-listener";
+
     private final ObjectMapper objectMapper;
     private final FactsGenerationService factsGenerationService;
+    private final StartupMetrics startupMetrics;
 
-    @KafkaListener(topics = "${app.kafka.topics.facts-events}", groupId = "${spring.kafka.consumer.group-id:${spring.application.name}}")
+    @KafkaListener(id = LISTENER_ID, autoStartup = "false",
+            topics = "${app.kafka.topics.facts-events}", groupId = "${spring.kafka.consumer.group-id:${spring.application.name}}")
     public void onMessage(String message) throws JacksonException {
         FactsEventPayload payload = deserialize(message);
         log.info("Received facts event: eventType={}, trackId={}, timestamp={}, priority={}",
                 payload.eventType(), payload.trackId(), payload.timestamp(), payload.priority());
         factsGenerationService.processBlocking(payload);
+        startupMetrics.recordProcessed();
     }
 
     FactsEventPayload deserialize(String message) throws JacksonException {
@@ -22,8 +22,8 @@ public class FactsEventsPublisher {
     private final KafkaTopicsProperties kafkaTopicsProperties;
     private final ObjectMapper objectMapper;
 
-    public void publishGeneratedFacts(String trackId, String factsJson, String eventType, String templateName) {
-        String payload = serializePayload(new GeneratedFactsPayload(trackId, factsJson));
+    public void publishGeneratedFacts(String trackId, String lang, String factsJson, String eventType, String templateName) {
+        String payload = serializePayload(new GeneratedFactsPayload(trackId, lang, factsJson));
         try {
             kafkaTemplate.send(kafkaTopicsProperties.getGeneratedFacts(), trackId, payload).get();
         } catch (InterruptedException e) {
@@ -32,8 +32,8 @@ public class FactsEventsPublisher {
         } catch (ExecutionException e) {
             throw new IllegalStateException("Failed to publish generated facts for track " + trackId, e.getCause());
         }
-        log.info("Published generated facts for track {} to topic {} [eventType={}, template={}]",
-                trackId, kafkaTopicsProperties.getGeneratedFacts(), eventType, templateName);
+        log.info("Published generated facts for track {} to topic {} [lang={}, eventType={}, template={}]",
+                trackId, kafkaTopicsProperties.getGeneratedFacts(), lang, eventType, templateName);
     }
 
     private String serializePayload(GeneratedFactsPayload payload) {
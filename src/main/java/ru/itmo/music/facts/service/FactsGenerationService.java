@@ -1,11 +1,14 @@
 package ru.itmo.music.facts.service;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.config.ProcessingProperties;
 import ru.itmo.music.facts.model.FactsEventPayload;
 import ru.itmo.music.facts.model.TrackMetadata;
 import ru.itmo.music.facts.service.FactsGenerator.GenerationResult;
@@ -21,6 +24,10 @@ public class FactsGenerationService {
     private final MusicServiceClient musicServiceClient;
     private final FactsGenerator factsGenerator;
     private final FactsEventsPublisher factsEventsPublisher;
+    private final ProcessingProperties processingProperties;
+    private final MeterRegistry meterRegistry;
+
+    private static final String DEADLINE_EXCEEDED_METRIC = "facts.events.deadline.exceeded";
 
     public void processBlocking(FactsEventPayload payload) {
         if (payload == null) {
@@ -44,17 +51,29 @@ public class FactsGenerationService {
             throw new IllegalArgumentException("trackId is missing in payload " + payload);
         }
 
-        log.info("Start facts generation for track {}, eventType={}, priority={}, timestamp={}",
-                trackId, eventType, priorityOrDefault(payload), timestampOrDefault(payload));
+        Instant deadline = deadlineOf(payload);
+        log.info("Start facts generation for track {}, eventType={}, priority={}, timestamp={}, deadline={}",
+                trackId, eventType, priorityOrDefault(payload), timestampOrDefault(payload), deadline);
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            log.warn("Event for track {} is older than its deadline {}, will send to DLT", trackId, deadline);
+            meterRegistry.counter(DEADLINE_EXCEEDED_METRIC).increment();
+            throw new DeadlineExceededException(trackId, deadline, null);
+        }
 
         TrackMetadata metadata = fetchTrackMetadata(trackId);
         log.info("Fetched track metadata for track {}: title='{}', artist='{}', year={}, explicit={}, durationMs={}",
                 trackId, metadata.title(), metadata.artist(), metadata.year(), metadata.explicit(), metadata.durationMs());
 
         try {
-            GenerationResult result = generateFacts(metadata, eventType, trackId);
-            factsEventsPublisher.publishGeneratedFacts(trackId, result.factsJson(), eventType, result.templateName());
-            log.info("Completed facts generation pipeline for track {}, eventType={}, template={}", trackId, eventType, result.templateName());
+            List<GenerationResult> results = generateFacts(metadata, eventType, trackId, deadline);
+            for (GenerationResult result : results) {
+                factsEventsPublisher.publishGeneratedFacts(trackId, result.lang(), result.factsJson(), eventType, result.templateName());
+            }
+            log.info("Completed facts generation pipeline for track {}, eventType={}, langs={}", trackId, eventType, results.size());
+        } catch (DeadlineExceededException e) {
+            log.warn("Facts generation for track {} abandoned at deadline {}, will send to DLT", trackId, deadline);
+            meterRegistry.counter(DEADLINE_EXCEEDED_METRIC).increment();
+            throw e;
         } catch (Exception e) {
             log.error("Facts generation pipeline failed for track {}", trackId, e);
             throw e;
@@ -80,6 +99,17 @@ public class FactsGenerationService {
         return payload.timestamp() != null ? payload.timestamp() : Instant.EPOCH;
     }
 
+    /**
+     * Events without a timestamp or with the deadline disabled have no deadline (null).
+     */
+    private Instant deadlineOf(FactsEventPayload payload) {
+        Long deadlineMs = processingProperties.getEventDeadlineMs();
+        if (payload.timestamp() == null || deadlineMs == null || deadlineMs <= 0) {
+            return null;
+        }
+        return payload.timestamp().plusMillis(deadlineMs);
+    }
+
     private boolean isDeletedEvent(String eventType) {
         return "deleted".equalsIgnoreCase(eventType);
     }
@@ -97,11 +127,12 @@ public class FactsGenerationService {
         }
     }
 
-    private GenerationResult generateFacts(TrackMetadata metadata, String eventType, String trackId) {
+    private List<GenerationResult> generateFacts(TrackMetadata metadata, String eventType, String trackId, Instant deadline) {
         try {
-            GenerationResult result = factsGenerator.generateFacts(metadata, eventType);
-            log.info("Facts generated for track {} using template={}, eventType={}", trackId, result.templateName(), eventType);
-            return result;
+            List<GenerationResult> results = factsGenerator.generateFacts(metadata, eventType, deadline);
+            log.info("Facts generated for track {}, eventType={}, langs={}", trackId, eventType,
+                    results.stream().map(GenerationResult::lang).toList());
+            return results;
         } catch (RuntimeException e) {
             log.error("Failed to generate facts for track {}", trackId, e);
             throw e;
@@ -1,16 +1,27 @@
 package ru.itmo.music.facts.service;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import ru.itmo.music.facts.client.CompletionTokenBudget;
 import ru.itmo.music.facts.client.ProxyApiClient;
+import ru.itmo.music.facts.client.ProxyApiClient.Completion;
 import ru.itmo.music.facts.client.ProxyApiClient.Message;
 import ru.itmo.music.facts.config.LlmProperties;
 import ru.itmo.music.facts.config.PromptProperties;
@@ -28,58 +39,236 @@ public class FactsGenerator {
     private final ProxyApiClient proxyApiClient;
     private final LlmProperties llmProperties;
     private final ObjectMapper objectMapper;
+    private final FactJsonRepairer factJsonRepairer;
+    private final MeterRegistry meterRegistry;
+    private final CompletionTokenBudget completionTokenBudget;
+
+    /**
+     * Rendered system prompts; they only depend on prompt settings, so each is formatted once and reused for every
+     * track. At ~150-200 tokens they are below the provider's 1024-token minimum for prompt-prefix caching, so this
+     * saves local formatting only, not prompt tokens.
+     */
+    private final Map<SystemPromptKey, String> systemPrompts = new ConcurrentHashMap<>();
 
     private static final String TEMPLATE_NAME = "proxyapi";
+    private static final String FORMAT_OUTCOME_METRIC = "facts.llm.format.outcome";
+    private static final String LANG_FAILED_METRIC = "facts.llm.lang.failed";
+    private static final String OUTCOME_VALID = "valid";
+    private static final String OUTCOME_REPAIRED = "repaired";
+    private static final String OUTCOME_RETRY = "retry";
+    private static final String OUTCOME_FAILED = "failed";
+    // Язык отсутствует или невалиден в мультиязычном ответе и перезапрашивается отдельно; это не повтор из-за формата.
+    private static final String OUTCOME_LANG_REREQUEST = "lang_rerequest";
+    // Идёт последним и от роли user: часть OpenAI-совместимых бэкендов отвергает или склеивает system после user.
+    private static final Message FORMAT_RETRY_MESSAGE = new Message("user",
+            "Предыдущий ответ был в неверном формате. Верни только JSON-объект без ``` и без пояснений.");
+
+    /**
+     * Generates one fact per configured language. Several languages are requested in a single completion;
+     * languages whose object is missing or invalid are re-requested alone. A language whose re-request fails is
+     * counted in {@code facts.llm.lang.failed} and left out, the call only fails when no language succeeded.
+     */
+    public List<GenerationResult> generateFacts(TrackMetadata metadata, String eventType, Instant deadline) {
+        List<String> langs = llmProperties.getPrompt().resolveLangs();
+        if (langs.size() == 1) {
+            return List.of(generateFact(metadata, eventType, langs.getFirst(), deadline));
+        }
+
+        Map<String, GenerationResult> generated = generateMultiLang(metadata, eventType, langs, deadline);
+        List<GenerationResult> results = new ArrayList<>(langs.size());
+        RuntimeException firstFailure = null;
+        for (String lang : langs) {
+            GenerationResult result = generated.get(lang);
+            if (result == null) {
+                log.info("Re-requesting facts for track {} in lang={} separately", metadata.id(), lang);
+                try {
+                    result = generateFact(metadata, eventType, lang, deadline);
+                } catch (RuntimeException e) {
+                    // Остальные языки уже готовы: публикуем их, а не отправляем всё событие в DLT.
+                    log.warn("Facts for track {} in lang={} failed and will not be published: {}", metadata.id(), lang, e.getMessage());
+                    meterRegistry.counter(LANG_FAILED_METRIC, "lang", lang).increment();
+                    firstFailure = firstFailure != null ? firstFailure : e;
+                    continue;
+                }
+            }
+            results.add(result);
+        }
+        if (results.isEmpty() && firstFailure != null) {
+            throw firstFailure;
+        }
+        return results;
+    }
 
-    public GenerationResult generateFacts(TrackMetadata metadata, String eventType) {
+    private GenerationResult generateFact(TrackMetadata metadata, String eventType, String lang, Instant deadline) {
         ProxyApiProperties proxyProps = llmProperties.getProxyapi();
         int maxFormatAttempts = Math.max(proxyProps.getFormatRetry().getMaxAttempts(), 1);
         String lastResponse = null;
 
         for (int attempt = 1; attempt <= maxFormatAttempts; attempt++) {
-            log.info("Requesting LLM facts for track {} (eventType={}, attempt {}/{}, model={}, temp={}, maxTokens={})",
-                    metadata.id(), eventType, attempt, maxFormatAttempts, proxyProps.getModel(), proxyProps.getTemperature(), proxyProps.getMaxTokens());
-            String response = proxyApiClient.complete(buildMessages(metadata, eventType, attempt));
+            // Повтор мог быть вызван обрезанным ответом, поэтому даём ему полный лимит.
+            int maxTokens = attempt == 1 ? completionTokenBudget.maxTokensPerFact() : proxyProps.getMaxTokens();
+            log.info("Requesting LLM facts for track {} (eventType={}, lang={}, attempt {}/{}, model={}, temp={}, maxTokens={})",
+                    metadata.id(), eventType, lang, attempt, maxFormatAttempts, proxyProps.getModel(), proxyProps.getTemperature(), maxTokens);
+            List<Message> messages = buildMessages(metadata, eventType, lang, attempt);
+            String response = complete(metadata.id(), deadline, 1,
+                    () -> proxyApiClient.complete(messages, maxTokens, deadline));
             lastResponse = response;
+            Consumer<FactContent> validator = fact -> validate(fact, lang);
             try {
                 FactContent fact = parseFact(response);
-                validate(fact);
-                String normalized = objectMapper.writeValueAsString(fact);
-                return new GenerationResult(TEMPLATE_NAME, normalized);
+                validator.accept(fact);
+                countFormatOutcome(OUTCOME_VALID);
+                return toResult(fact, lang);
             } catch (Exception ex) {
+                // Сначала пробуем дешёвый локальный ремонт, и только потом платим за повторный запрос к LLM.
+                Optional<FactContent> repaired = factJsonRepairer.repair(response, validator);
+                if (repaired.isPresent()) {
+                    log.info("Repaired invalid LLM fact locally for track {} (attempt {}/{}): {}",
+                            metadata.id(), attempt, maxFormatAttempts, ex.getMessage());
+                    countFormatOutcome(OUTCOME_REPAIRED);
+                    return toResult(repaired.get(), lang);
+                }
                 log.warn("LLM returned invalid fact format (attempt {}/{}): {}", attempt, maxFormatAttempts, ex.getMessage());
                 if (attempt == maxFormatAttempts) {
+                    countFormatOutcome(OUTCOME_FAILED);
                     throw new IllegalStateException("LLM returned invalid format after retries: " + ex.getMessage(), ex);
                 }
+                countFormatOutcome(OUTCOME_RETRY);
             }
         }
 
         throw new IllegalStateException("Unexpected fallthrough while generating facts. Last response: " + lastResponse);
     }
 
-    private List<Message> buildMessages(TrackMetadata metadata, String eventType, int attempt) {
+    /**
+     * Requests all languages in one completion and returns only the languages that passed validation.
+     */
+    private Map<String, GenerationResult> generateMultiLang(TrackMetadata metadata, String eventType, List<String> langs,
+            Instant deadline) {
+        ProxyApiProperties proxyProps = llmProperties.getProxyapi();
+        int maxTokens = completionTokenBudget.maxTokensPerFact() * langs.size();
+        log.info("Requesting LLM facts for track {} (eventType={}, langs={}, model={}, temp={}, maxTokens={})",
+                metadata.id(), eventType, langs, proxyProps.getModel(), proxyProps.getTemperature(), maxTokens);
+        String response = complete(metadata.id(), deadline, langs.size(),
+                () -> proxyApiClient.complete(buildMultiLangMessages(metadata, eventType, langs), maxTokens, deadline));
+
+        Map<String, GenerationResult> results = new LinkedHashMap<>();
+        Optional<JsonNode> root = parseTree(response);
+        if (root.isEmpty()) {
+            log.warn("LLM returned unparseable multi-lang response for track {}", metadata.id());
+        }
+        JsonNode facts = root.map(node -> node.has("facts") ? node.get("facts") : node).orElse(null);
+        for (String lang : langs) {
+            JsonNode langNode = facts != null ? facts.get(lang) : null;
+            if (langNode == null || !langNode.isObject()) {
+                countFormatOutcome(OUTCOME_LANG_REREQUEST);
+                continue;
+            }
+            Consumer<FactContent> validator = fact -> validate(fact, lang);
+            try {
+                FactContent fact = objectMapper.convertValue(langNode, FactContent.class);
+                validator.accept(fact);
+                countFormatOutcome(OUTCOME_VALID);
+                results.put(lang, toResult(fact, lang));
+            } catch (Exception ex) {
+                Optional<FactContent> repaired = factJsonRepairer.repair(langNode, validator);
+                if (repaired.isPresent()) {
+                    countFormatOutcome(OUTCOME_REPAIRED);
+                    results.put(lang, toResult(repaired.get(), lang));
+                } else {
+                    log.warn("LLM returned invalid fact for track {} in lang={}: {}", metadata.id(), lang, ex.getMessage());
+                    countFormatOutcome(OUTCOME_LANG_REREQUEST);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs an LLM call for {@code facts} facts unless the event deadline has passed and accounts its token usage;
+     * failures after the deadline are reported as {@link DeadlineExceededException} so the event is not retried.
+     */
+    private String complete(String trackId, Instant deadline, int facts, Supplier<Completion> call) {
+        if (isExpired(deadline)) {
+            throw new DeadlineExceededException(trackId, deadline, null);
+        }
+        try {
+            Completion completion = call.get();
+            completionTokenBudget.record(completion.usage(), facts, completion.truncated());
+            return completion.content();
+        } catch (RuntimeException e) {
+            if (isExpired(deadline)) {
+                throw new DeadlineExceededException(trackId, deadline, e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isExpired(Instant deadline) {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    private Optional<JsonNode> parseTree(String response) {
+        try {
+            return Optional.ofNullable(objectMapper.readTree(stripMarkdown(response)));
+        } catch (Exception ex) {
+            return factJsonRepairer.extractTree(response);
+        }
+    }
+
+    private GenerationResult toResult(FactContent fact, String lang) {
+        try {
+            return new GenerationResult(TEMPLATE_NAME, lang, objectMapper.writeValueAsString(fact));
+        } catch (JacksonException e) {
+            throw new IllegalStateException("Unable to serialize generated fact", e);
+        }
+    }
+
+    private void countFormatOutcome(String outcome) {
+        meterRegistry.counter(FORMAT_OUTCOME_METRIC, "outcome", outcome).increment();
+    }
+
+    private List<Message> buildMessages(TrackMetadata metadata, String eventType, String lang, int attempt) {
+        PromptProperties prompt = llmProperties.getPrompt();
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message("system", systemPrompt(prompt, lang)));
+        messages.add(new Message("user", userPrompt(metadata, eventType, lang)));
+        if (attempt > 1) {
+            messages.add(FORMAT_RETRY_MESSAGE);
+        }
+        return messages;
+    }
+
+    private List<Message> buildMultiLangMessages(TrackMetadata metadata, String eventType, List<String> langs) {
         PromptProperties prompt = llmProperties.getPrompt();
         List<Message> messages = new ArrayList<>();
-        messages.add(new Message("system", systemPrompt(prompt, attempt)));
-        messages.add(new Message("user", userPrompt(metadata, eventType, prompt)));
+        messages.add(new Message("system", multiLangSystemPrompt(prompt, langs)));
+        messages.add(new Message("user", userPrompt(metadata, eventType, String.join(",", langs))));
         return messages;
     }
 
-    private String systemPrompt(PromptProperties prompt, int attempt) {
-        String base = """
+    private String systemPrompt(PromptProperties prompt, String lang) {
+        SystemPromptKey key = new SystemPromptKey(false, prompt.getFormatVersion(), lang, prompt.getMaxSources());
+        return systemPrompts.computeIfAbsent(key, k -> """
                 Ты генерируешь один интересный факт о треке и возвращаешь строго JSON без Markdown и лишнего текста.
                 Формат: {"formatVersion":%d,"lang":"%s","short":"...","full":"...","sources":[{"title":"...","url":"..."}]}.
                 Обязательные поля: formatVersion, lang, short, full, sources (1..%d элементов, url должен быть https/http).
                 """
-                .formatted(prompt.getFormatVersion(), prompt.getLang(), prompt.getMaxSources());
+                .formatted(k.formatVersion(), k.langs(), k.maxSources()));
+    }
 
-        if (attempt > 1) {
-            return base + "Предыдущий ответ был в неверном формате. Верни только JSON-объект без ``` и без пояснений.";
-        }
-        return base;
+    private String multiLangSystemPrompt(PromptProperties prompt, List<String> langs) {
+        SystemPromptKey key = new SystemPromptKey(true, prompt.getFormatVersion(), String.join(", ", langs), prompt.getMaxSources());
+        return systemPrompts.computeIfAbsent(key, k -> """
+                Ты генерируешь один интересный факт о треке сразу на нескольких языках (%s) и возвращаешь строго JSON без Markdown и лишнего текста.
+                Формат: {"facts":{"<lang>":{"formatVersion":%d,"lang":"<lang>","short":"...","full":"...","sources":[{"title":"...","url":"..."}]}}}, по одному объекту на каждый язык.
+                Это один и тот же факт, переведённый на каждый язык; поле lang совпадает с ключом.
+                Обязательные поля: formatVersion, lang, short, full, sources (1..%d элементов, url должен быть https/http).
+                """
+                .formatted(k.langs(), k.formatVersion(), k.maxSources()));
     }
 
-    private String userPrompt(TrackMetadata metadata, String eventType, PromptProperties prompt) {
+    private String userPrompt(TrackMetadata metadata, String eventType, String lang) {
         String title = safe(metadata.title());
         String artist = safe(metadata.artist());
         String year = metadata.year() != null ? metadata.year().toString() : "unknown";
@@ -91,7 +280,7 @@ public class FactsGenerator {
                 Сгенерируй один проверяемый факт о треке.
                 title="%s"; artist="%s"; year=%s; durationMs=%s; explicit=%s; eventType=%s; lang=%s.
                 Если нет достоверной информации, напиши, что достоверный факт не найден, но сохрани формат.
-                """.formatted(title, artist, year, duration, explicit, scenario, prompt.getLang());
+                """.formatted(title, artist, year, duration, explicit, scenario, lang);
     }
 
     private FactContent parseFact(String rawContent) throws JacksonException {
@@ -123,6 +312,13 @@ public class FactsGenerator {
         });
     }
 
+    private void validate(FactContent fact, String expectedLang) {
+        validate(fact);
+        if (!expectedLang.equalsIgnoreCase(fact.lang)) {
+            throw new IllegalArgumentException("lang %s does not match expected %s".formatted(fact.lang, expectedLang));
+        }
+    }
+
     private String stripMarkdown(String text) {
         if (!StringUtils.hasText(text)) {
             return text;
@@ -161,6 +357,9 @@ public class FactsGenerator {
     ) {
     }
 
-    public record GenerationResult(String templateName, String factsJson) {
+    private record SystemPromptKey(boolean multiLang, Integer formatVersion, String langs, Integer maxSources) {
+    }
+
+    public record GenerationResult(String templateName, String lang, String factsJson) {
     }
 }
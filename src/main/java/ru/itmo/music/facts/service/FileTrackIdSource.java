@@ -0,0 +1,52 @@
+package ru.itmo.music.facts.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Reads track ids from a text file, one id per line; blank lines are ignored.
+ */
+class FileTrackIdSource implements TrackIdSource {
+
+    private final BufferedReader reader;
+    private final long total;
+
+    FileTrackIdSource(Path path) throws IOException {
+        try (Stream<String> lines = Files.lines(path)) {
+            this.total = lines.filter(line -> !line.isBlank()).count();
+        }
+        this.reader = Files.newBufferedReader(path);
+    }
+
+    @Override
+    public Long total() {
+        return total;
+    }
+
+    @Override
+    public void skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && next() != null) {
+            skipped++;
+        }
+    }
+
+    @Override
+    public String next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return line.trim();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
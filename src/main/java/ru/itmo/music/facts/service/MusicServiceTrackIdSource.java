@@ -0,0 +1,61 @@
+package ru.itmo.music.facts.service;
+
+import java.util.List;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.model.TrackIdsPage;
+
+/**
+ * Walks the Music Service catalog listing page by page.
+ */
+class MusicServiceTrackIdSource implements TrackIdSource {
+
+    private final MusicServiceClient musicServiceClient;
+    private final int pageSize;
+
+    private int page;
+    private List<String> buffer = List.of();
+    private int index;
+    private boolean exhausted;
+    private Long total;
+
+    MusicServiceTrackIdSource(MusicServiceClient musicServiceClient, int pageSize) {
+        this.musicServiceClient = musicServiceClient;
+        this.pageSize = Math.max(pageSize, 1);
+    }
+
+    @Override
+    public Long total() {
+        return total;
+    }
+
+    @Override
+    public void skip(long count) {
+        // Сразу запрашиваем нужную страницу, не перебирая предыдущие.
+        page = Math.toIntExact(count / pageSize);
+        fetchNextPage();
+        index = (int) Math.min(count % pageSize, buffer.size());
+    }
+
+    @Override
+    public String next() {
+        while (index >= buffer.size()) {
+            if (exhausted) {
+                return null;
+            }
+            fetchNextPage();
+        }
+        return buffer.get(index++);
+    }
+
+    private void fetchNextPage() {
+        TrackIdsPage result = musicServiceClient.listTrackIds(page, pageSize);
+        List<String> ids = result != null && result.ids() != null ? result.ids() : List.of();
+        if (result != null && result.total() != null) {
+            total = result.total();
+        }
+        buffer = ids;
+        index = 0;
+        page++;
+        exhausted = ids.size() < pageSize;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.itmo.music.facts.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records how long a fresh pod needs to warm up and to process its first record.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean firstRecordProcessed = new AtomicBoolean();
+
+    public void recordWarmup(Duration duration) {
+        meterRegistry.timer("facts.startup.warmup").record(duration);
+        log.info("Warm-up finished in {} ms", duration.toMillis());
+    }
+
+    public void recordProcessed() {
+        if (firstRecordProcessed.compareAndSet(false, true)) {
+            long jvmStartedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+            Duration sinceStart = Duration.ofMillis(System.currentTimeMillis() - jvmStartedAt);
+            meterRegistry.timer("facts.startup.first.record").record(sinceStart);
+            log.info("First record processed {} ms after JVM start", sinceStart.toMillis());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.itmo.music.facts.service;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.client.ProxyApiClient;
+import ru.itmo.music.facts.config.KafkaTopicsProperties;
+import ru.itmo.music.facts.config.WarmupProperties;
+import ru.itmo.music.facts.model.FactsEventPayload;
+import ru.itmo.music.facts.model.GeneratedFactsPayload;
+import ru.itmo.music.facts.service.FactsGenerator.FactContent;
+import ru.itmo.music.facts.service.FactsGenerator.FactSource;
+
+/**
+ * Warms up outbound connections, Jackson serializers and the Kafka producer, then starts the facts listener.
+ * Runs as an {@link ApplicationRunner}, so the pod reports readiness only after warm-up is over.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private final WarmupProperties warmupProperties;
+    private final ProxyApiClient proxyApiClient;
+    private final MusicServiceClient musicServiceClient;
+    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTopicsProperties kafkaTopicsProperties;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final StartupMetrics startupMetrics;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (Boolean.TRUE.equals(warmupProperties.getEnabled())) {
+            warmUp();
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(FactsEventsListener.LISTENER_ID);
+        if (container != null && !container.isRunning()) {
+            log.info("Starting facts events listener");
+            container.start();
+        }
+    }
+
+    private void warmUp() {
+        long startedNanos = System.nanoTime();
+        ExecutorService executor = Executors.newCachedThreadPool(Thread.ofPlatform().daemon().name("facts-warmup-", 0).factory());
+        try {
+            List<CompletableFuture<Void>> steps = List.of(
+                    step(executor, "jackson", this::warmUpJackson),
+                    step(executor, "proxyapi", proxyApiClient::warmUp),
+                    // Тот же маршрут, что и в обработке событий; 404 на несуществующий id ожидаем и дешёвый.
+                    step(executor, "music-service", () -> musicServiceClient.getTrack("warmup")),
+                    step(executor, "kafka-producer", () -> kafkaTemplate.partitionsFor(kafkaTopicsProperties.getGeneratedFacts())));
+            CompletableFuture.allOf(steps.toArray(CompletableFuture[]::new))
+                    .get(warmupProperties.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Warm-up did not finish in {} ms, starting listener anyway", warmupProperties.getTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Warm-up failed: {}", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+        startupMetrics.recordWarmup(Duration.ofNanos(System.nanoTime() - startedNanos));
+    }
+
+    /**
+     * Warm-up is best effort: a failing step (e.g. 404 from an optional endpoint) has already initialized
+     * the client stack, so it is logged and ignored.
+     */
+    private static CompletableFuture<Void> step(ExecutorService executor, String name, Runnable action) {
+        return CompletableFuture.runAsync(() -> {
+            long startedNanos = System.nanoTime();
+            try {
+                action.run();
+                log.info("Warm-up step {} done in {} ms", name, elapsedMs(startedNanos));
+            } catch (Exception e) {
+                log.info("Warm-up step {} finished with error in {} ms: {}", name, elapsedMs(startedNanos), e.getMessage());
+            }
+        }, executor);
+    }
+
+    private void warmUpJackson() {
+        roundTrip(new FactsEventPayload("1", "refresh", "warmup", 0, Instant.now()), FactsEventPayload.class);
+        roundTrip(new GeneratedFactsPayload("warmup", "ru", "{}"), GeneratedFactsPayload.class);
+        roundTrip(new FactContent(1, "ru", "short", "full", List.of(new FactSource("title", "https://example.org"))),
+                FactContent.class);
+    }
+
+    private <T> void roundTrip(T value, Class<T> type) {
+        try {
+            objectMapper.readValue(objectMapper.writeValueAsString(value), type);
+        } catch (JacksonException e) {
+            throw new IllegalStateException("Unable to warm up Jackson for " + type.getSimpleName(), e);
+        }
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.itmo.music.facts.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sequential source of track ids for backfill runs.
+ */
+interface TrackIdSource extends Closeable {
+
+    /**
+     * Total number of ids, or null while it is not known.
+     */
+    Long total();
+
+    /**
+     * Skips the first {@code count} ids; used when resuming from a checkpoint.
+     */
+    void skip(long count) throws IOException;
+
+    /**
+     * Returns the next track id or null when the source is exhausted.
+     */
+    String next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -3,7 +3,8 @@ package ru.itmo.music.facts;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Без прогрева: в тесте нет брокера и внешних сервисов, а partitionsFor ждал бы весь timeout-ms.
+@SpringBootTest(properties = "app.warmup.enabled=false")
 class FactsServiceApplicationTests {
 
     @Test
@@ -0,0 +1,91 @@
+package ru.itmo.music.facts.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.client.ProxyApiClient.PromptTokensDetails;
+import ru.itmo.music.facts.client.ProxyApiClient.Usage;
+import ru.itmo.music.facts.config.AdaptiveMaxTokensProperties;
+import ru.itmo.music.facts.config.LlmProperties;
+
+class CompletionTokenBudgetTest {
+
+    private final LlmProperties properties = new LlmProperties();
+    private final AdaptiveMaxTokensProperties adaptive = properties.getProxyapi().getAdaptiveMaxTokens();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        properties.getProxyapi().setMaxTokens(600);
+        adaptive.setFactor(1.3);
+        adaptive.setMinTokens(200);
+        adaptive.setMinSamples(3);
+    }
+
+    @Test
+    void usesMaxTokensUntilMinSamplesAreObserved() {
+        CompletionTokenBudget budget = new CompletionTokenBudget(properties, meterRegistry);
+        budget.record(usage(300), 1, false);
+        budget.record(usage(300), 1, false);
+
+        assertThat(budget.maxTokensPerFact()).isEqualTo(600);
+
+        budget.record(usage(300), 1, false);
+        assertThat(budget.maxTokensPerFact()).isEqualTo(390);
+    }
+
+    @Test
+    void clampsToMinTokensAndMaxTokens() {
+        CompletionTokenBudget small = new CompletionTokenBudget(properties, new SimpleMeterRegistry());
+        CompletionTokenBudget large = new CompletionTokenBudget(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            small.record(usage(50), 1, false);
+            large.record(usage(600), 1, true);
+        }
+
+        assertThat(small.maxTokensPerFact()).isEqualTo(200);
+        assertThat(large.maxTokensPerFact()).isEqualTo(600);
+    }
+
+    @Test
+    void neverExceedsMaxTokensWhenMinTokensIsLarger() {
+        adaptive.setMinTokens(1_000);
+        CompletionTokenBudget budget = new CompletionTokenBudget(properties, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            budget.record(usage(50), 1, false);
+        }
+
+        assertThat(budget.maxTokensPerFact()).isEqualTo(600);
+    }
+
+    @Test
+    void splitsCompletionTokensBetweenFactsAndCountsUsage() {
+        CompletionTokenBudget budget = new CompletionTokenBudget(properties, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            budget.record(new Usage(180, 600, 780, new PromptTokensDetails(0)), 2, false);
+        }
+        budget.record(null, 1, true);
+
+        assertThat(budget.maxTokensPerFact()).isEqualTo(390);
+        assertThat(meterRegistry.counter("facts.llm.tokens", "type", "prompt").count()).isEqualTo(540.0);
+        assertThat(meterRegistry.counter("facts.llm.tokens", "type", "completion").count()).isEqualTo(1_800.0);
+        assertThat(meterRegistry.find("facts.llm.tokens").tag("type", "cached").counter()).isNull();
+        assertThat(meterRegistry.counter("facts.llm.truncated").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void usesMaxTokensWhenDisabled() {
+        adaptive.setEnabled(false);
+        CompletionTokenBudget budget = new CompletionTokenBudget(properties, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            budget.record(usage(50), 1, false);
+        }
+
+        assertThat(budget.maxTokensPerFact()).isEqualTo(600);
+    }
+
+    private static Usage usage(int completionTokens) {
+        return new Usage(100, completionTokens, 100 + completionTokens, null);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.itmo.music.facts.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import ru.itmo.music.facts.client.ProxyApiClient.Completion;
+import ru.itmo.music.facts.client.ProxyApiClient.Message;
+import ru.itmo.music.facts.config.LlmProperties;
+
+class ProxyApiClientTest {
+
+    private static final List<Message> MESSAGES = List.of(new Message("user", "факт"));
+    private static final String COMPLETION_JSON = """
+            {"choices":[{"message":{"role":"assistant","content":"{}"},"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":10,"completion_tokens":5,"total_tokens":15}}""";
+
+    private final LlmProperties properties = new LlmProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProxyApiLatencyTracker latencyTracker = mock(ProxyApiLatencyTracker.class);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties.getProxyapi().setApiKey("test-key");
+        properties.getProxyapi().setBaseUrl("http://proxyapi.test/v1");
+        properties.getProxyapi().getRetry().setMaxAttempts(1);
+        properties.getProxyapi().getRetry().setBackoffMs(1L);
+        when(latencyTracker.attemptTimeout()).thenReturn(Duration.ofMillis(100));
+    }
+
+    @Test
+    void slowResponseHitsAdaptiveTimeoutAndIsRecorded() {
+        ProxyApiClient client = client(new RetryBudget(properties, meterRegistry), List.of());
+
+        assertThatThrownBy(() -> client.complete(MESSAGES, 100, null)).hasRootCauseInstanceOf(TimeoutException.class);
+
+        assertThat(calls.get()).isEqualTo(2);
+        verify(latencyTracker, times(2)).record(Duration.ofMillis(100));
+    }
+
+    @Test
+    void deadlineShortensAttemptWithoutRecordingAndStopsRetries() {
+        when(latencyTracker.attemptTimeout()).thenReturn(Duration.ofSeconds(5));
+        properties.getProxyapi().getRetry().setMaxAttempts(3);
+        // Повтор, если бы он случился, стартовал бы уже после дедлайна.
+        properties.getProxyapi().getRetry().setBackoffMs(50L);
+        ProxyApiClient client = client(new RetryBudget(properties, meterRegistry), List.of());
+        Instant deadline = Instant.now().plusMillis(150);
+
+        long startedNanos = System.nanoTime();
+        assertThatThrownBy(() -> client.complete(MESSAGES, 100, deadline)).hasRootCauseInstanceOf(TimeoutException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedNanos)).isLessThan(Duration.ofSeconds(2));
+        assertThat(calls.get()).isEqualTo(1);
+        verify(latencyTracker, never()).record(any());
+    }
+
+    @Test
+    void passedDeadlineSkipsTheCall() {
+        ProxyApiClient client = client(new RetryBudget(properties, meterRegistry), List.of());
+
+        assertThatThrownBy(() -> client.complete(MESSAGES, 100, Instant.now().minusSeconds(1)))
+                .hasRootCauseInstanceOf(TimeoutException.class);
+
+        assertThat(calls.get()).isZero();
+    }
+
+    @Test
+    void serverErrorIsNotRetriedWhenBudgetIsExhausted() {
+        properties.getProxyapi().getRetryBudget().setMinRetries(1);
+        properties.getProxyapi().getRetryBudget().setRatio(0.0);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        ProxyApiClient client = client(budget, List.of(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThatThrownBy(() -> client.complete(MESSAGES, 100, null)).isInstanceOf(WebClientResponseException.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("facts.llm.retry.budget.denied").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void exhaustedAttemptsDoNotSpendBudget() {
+        properties.getProxyapi().getRetryBudget().setMinRetries(2);
+        properties.getProxyapi().getRetryBudget().setRatio(0.0);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+        ProxyApiClient client = client(budget,
+                List.of(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThatThrownBy(() -> client.complete(MESSAGES, 100, null)).isInstanceOf(WebClientResponseException.class);
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void retriesServerErrorAndRecordsLatencyOfSuccess() {
+        ProxyApiClient client = client(new RetryBudget(properties, meterRegistry),
+                List.of(HttpStatus.BAD_GATEWAY, HttpStatus.OK));
+
+        Completion completion = client.complete(MESSAGES, 100, null);
+
+        assertThat(completion.content()).isEqualTo("{}");
+        assertThat(completion.usage().completion_tokens()).isEqualTo(5);
+        assertThat(calls.get()).isEqualTo(2);
+        verify(latencyTracker, times(1)).record(any());
+    }
+
+    /**
+     * Answers attempts with the given statuses in order; once they run out the response never arrives.
+     */
+    private ProxyApiClient client(RetryBudget budget, List<HttpStatus> statuses) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            int call = calls.getAndIncrement();
+            if (call >= statuses.size()) {
+                return Mono.never();
+            }
+            HttpStatus status = statuses.get(call);
+            return Mono.just(ClientResponse.create(status)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(status.is2xxSuccessful() ? COMPLETION_JSON : "{}")
+                    .build());
+        });
+        return new ProxyApiClient(properties, builder, latencyTracker, budget);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.itmo.music.facts.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.config.AdaptiveTimeoutProperties;
+import ru.itmo.music.facts.config.LlmProperties;
+
+class ProxyApiLatencyTrackerTest {
+
+    private final LlmProperties properties = new LlmProperties();
+    private final AdaptiveTimeoutProperties adaptive = properties.getProxyapi().getAdaptiveTimeout();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        properties.getProxyapi().setTimeoutMs(7_000);
+        adaptive.setFactor(1.5);
+        adaptive.setMinMs(2_000L);
+        adaptive.setMaxMs(10_000L);
+        adaptive.setMinSamples(3);
+    }
+
+    @Test
+    void usesStaticTimeoutUntilMinSamplesAreObserved() {
+        ProxyApiLatencyTracker tracker = new ProxyApiLatencyTracker(properties, meterRegistry);
+        tracker.record(Duration.ofMillis(1_000));
+        tracker.record(Duration.ofMillis(1_000));
+
+        assertThat(tracker.attemptTimeout()).isEqualTo(Duration.ofMillis(7_000));
+
+        tracker.record(Duration.ofMillis(4_000));
+        assertThat(tracker.attemptTimeout()).isEqualTo(Duration.ofMillis(6_000));
+        assertThat(meterRegistry.get("facts.llm.attempt.timeout").gauge().value()).isEqualTo(6_000.0);
+    }
+
+    @Test
+    void clampsToMinAndMax() {
+        ProxyApiLatencyTracker fast = new ProxyApiLatencyTracker(properties, new SimpleMeterRegistry());
+        ProxyApiLatencyTracker slow = new ProxyApiLatencyTracker(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            fast.record(Duration.ofMillis(100));
+            slow.record(Duration.ofSeconds(20));
+        }
+
+        assertThat(fast.attemptTimeout()).isEqualTo(Duration.ofMillis(2_000));
+        assertThat(slow.attemptTimeout()).isEqualTo(Duration.ofMillis(10_000));
+    }
+
+    @Test
+    void neverExceedsMaxWhenMinIsLarger() {
+        adaptive.setMaxMs(1_500L);
+        ProxyApiLatencyTracker tracker = new ProxyApiLatencyTracker(properties, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            tracker.record(Duration.ofMillis(100));
+        }
+
+        assertThat(tracker.attemptTimeout()).isEqualTo(Duration.ofMillis(1_500));
+    }
+
+    @Test
+    void usesStaticTimeoutWhenDisabled() {
+        adaptive.setEnabled(false);
+        ProxyApiLatencyTracker tracker = new ProxyApiLatencyTracker(properties, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            tracker.record(Duration.ofMillis(100));
+        }
+
+        assertThat(tracker.attemptTimeout()).isEqualTo(Duration.ofMillis(7_000));
+    }
+}
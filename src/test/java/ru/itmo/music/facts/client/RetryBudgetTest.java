@@ -0,0 +1,88 @@
+package ru.itmo.music.facts.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.config.RetryBudgetProperties;
+
+class RetryBudgetTest {
+
+    private final LlmProperties properties = new LlmProperties();
+    private final RetryBudgetProperties budgetProperties = properties.getProxyapi().getRetryBudget();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void startsWithMinRetriesAndCountsDenials() {
+        budgetProperties.setMinRetries(2);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+        assertThat(meterRegistry.counter("facts.llm.retry.budget.denied").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void earnsRatioOfARetryPerRequest() {
+        budgetProperties.setMinRetries(1);
+        budgetProperties.setRatio(0.5);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+        assertThat(budget.tryAcquireRetry()).isTrue();
+
+        budget.recordRequest();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+
+        budget.recordRequest();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+    }
+
+    @Test
+    void capsBalanceAtMinRetries() {
+        budgetProperties.setMinRetries(2);
+        budgetProperties.setRatio(1.0);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void leavesHalfOfTheBudgetToLiveTraffic() {
+        budgetProperties.setMinRetries(10);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(budget.tryAcquireRetry(true)).isTrue();
+        }
+        assertThat(budget.tryAcquireRetry(true)).isFalse();
+        for (int i = 0; i < 5; i++) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void marksBackgroundCallsOnCurrentThreadOnly() {
+        boolean[] inside = new boolean[1];
+
+        RetryBudget.runAsBackground(() -> inside[0] = RetryBudget.isBackground());
+
+        assertThat(inside[0]).isTrue();
+        assertThat(RetryBudget.isBackground()).isFalse();
+    }
+
+    @Test
+    void keepsAtLeastOneRetryWhenMinRetriesIsZero() {
+        budgetProperties.setMinRetries(0);
+        RetryBudget budget = new RetryBudget(properties, meterRegistry);
+
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.itmo.music.facts.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowTest {
+
+    @Test
+    void returnsNullUntilMinSamplesAreRecorded() {
+        SlidingWindow window = new SlidingWindow(10);
+        window.add(5);
+        window.add(7);
+
+        assertThat(window.percentile(0.5, 3)).isNull();
+
+        window.add(9);
+        assertThat(window.percentile(0.5, 3)).isEqualTo(7L);
+    }
+
+    @Test
+    void usesNearestRank() {
+        SlidingWindow window = new SlidingWindow(100);
+        for (long value = 100; value >= 1; value--) {
+            window.add(value);
+        }
+
+        assertThat(window.percentile(0.99, 1)).isEqualTo(99L);
+        assertThat(window.percentile(0.5, 1)).isEqualTo(50L);
+        assertThat(window.percentile(1.0, 1)).isEqualTo(100L);
+        assertThat(window.percentile(0.0, 1)).isEqualTo(1L);
+    }
+
+    @Test
+    void keepsOnlyLatestValuesWithinCapacity() {
+        SlidingWindow window = new SlidingWindow(3);
+        window.add(1_000);
+        window.add(1);
+        window.add(2);
+        window.add(3);
+
+        assertThat(window.percentile(1.0, 1)).isEqualTo(3L);
+        assertThat(window.percentile(0.0, 4)).isNull();
+    }
+}
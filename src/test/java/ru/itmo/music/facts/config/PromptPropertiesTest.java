@@ -0,0 +1,43 @@
+package ru.itmo.music.facts.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PromptPropertiesTest {
+
+    private final PromptProperties properties = new PromptProperties();
+
+    @Test
+    void fallsBackToSingleLangWhenLangsAreEmpty() {
+        properties.setLang("en");
+
+        assertThat(properties.resolveLangs()).containsExactly("en");
+
+        properties.setLangs(null);
+        assertThat(properties.resolveLangs()).containsExactly("en");
+    }
+
+    @Test
+    void fallsBackToSingleLangWhenAllLangsAreBlank() {
+        properties.setLangs(new ArrayList<>(Arrays.asList("", "  ")));
+
+        assertThat(properties.resolveLangs()).containsExactly("ru");
+    }
+
+    @Test
+    void trimsAndDeduplicatesLangsKeepingOrder() {
+        properties.setLangs(new ArrayList<>(Arrays.asList(" ru", "en ", "", "  ", "ru", "de")));
+
+        assertThat(properties.resolveLangs()).containsExactly("ru", "en", "de");
+    }
+
+    @Test
+    void keepsSingleConfiguredLang() {
+        properties.setLangs(List.of("en"));
+
+        assertThat(properties.resolveLangs()).containsExactly("en");
+    }
+}
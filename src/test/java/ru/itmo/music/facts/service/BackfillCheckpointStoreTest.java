@@ -0,0 +1,59 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BackfillCheckpointStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsPosition() throws Exception {
+        BackfillCheckpointStore store = new BackfillCheckpointStore(dir.resolve("backfill.checkpoint"));
+
+        store.write("music-service", 42);
+        store.write("music-service", 150);
+
+        assertThat(store.read("music-service")).isEqualTo(150L);
+    }
+
+    @Test
+    void missingCheckpointStartsFromZero() throws Exception {
+        assertThat(new BackfillCheckpointStore(dir.resolve("absent")).read("music-service")).isZero();
+    }
+
+    @Test
+    void rejectsCheckpointOfAnotherSource() throws Exception {
+        BackfillCheckpointStore store = new BackfillCheckpointStore(dir.resolve("backfill.checkpoint"));
+        store.write("file:/data/ids.txt", 10);
+
+        assertThatThrownBy(() -> store.read("music-service"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("file:/data/ids.txt");
+    }
+
+    @Test
+    void appendsFailedIdsUntilReset() throws Exception {
+        BackfillCheckpointStore store = new BackfillCheckpointStore(dir.resolve("backfill.checkpoint"));
+
+        store.appendFailed("track-1");
+        store.appendFailed("track-2");
+        assertThat(Files.readAllLines(store.failedPath())).containsExactly("track-1", "track-2");
+
+        store.resetFailed();
+        assertThat(Files.readAllLines(store.failedPath())).isEmpty();
+    }
+
+    @Test
+    void writeFailsWhenDirectoryIsMissing() {
+        BackfillCheckpointStore store = new BackfillCheckpointStore(dir.resolve("missing/backfill.checkpoint"));
+
+        assertThatThrownBy(() -> store.write("music-service", 1)).isInstanceOf(IOException.class);
+    }
+}
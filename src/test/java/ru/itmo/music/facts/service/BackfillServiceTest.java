@@ -0,0 +1,164 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.config.BackfillProperties;
+import ru.itmo.music.facts.model.BackfillRequest;
+import ru.itmo.music.facts.model.BackfillStatus;
+
+class BackfillServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final FactsGenerationService generationService = mock(FactsGenerationService.class);
+    private final BackfillProperties properties = new BackfillProperties();
+    private final BackfillService service = new BackfillService(generationService, mock(MusicServiceClient.class), properties);
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void statusReportsThroughputAndEta() {
+        BackfillService.Run run = new BackfillService.Run("music-service", 10, 0L);
+        run.total = 110L;
+        run.position.set(60);
+        run.processed.set(40);
+        run.failed.set(10);
+
+        BackfillStatus status = run.status(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(status.throughputPerSecond()).isEqualTo(5.0);
+        assertThat(status.etaSeconds()).isEqualTo(10L);
+    }
+
+    @Test
+    void statusHasNoEtaWithoutTotalOrProgress() {
+        BackfillService.Run run = new BackfillService.Run("music-service", 0, 0L);
+
+        assertThat(run.status(TimeUnit.SECONDS.toNanos(5)).etaSeconds()).isNull();
+        run.total = 100L;
+        assertThat(run.status(0L).etaSeconds()).isNull();
+    }
+
+    @Test
+    void positionOnlyPassesContiguouslyFinishedTracks() {
+        BackfillService.Run run = new BackfillService.Run("music-service", 10, 0L);
+
+        run.finish(12);
+        run.finish(11);
+        assertThat(run.position.get()).isEqualTo(10L);
+
+        run.finish(10);
+        assertThat(run.position.get()).isEqualTo(13L);
+    }
+
+    @Test
+    void startFailsWithoutCheckpointFile() {
+        assertThatThrownBy(() -> service.start(new BackfillRequest(null, false)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checkpoint-file");
+    }
+
+    @Test
+    void startFailsWhenCheckpointIsNotWritable() {
+        properties.setCheckpointFile(dir.resolve("missing/backfill.checkpoint").toString());
+
+        assertThatThrownBy(() -> service.start(new BackfillRequest(null, false)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void interruptedTrackDoesNotAdvancePosition() throws Exception {
+        Path ids = Files.writeString(dir.resolve("ids.txt"), "track-1\ntrack-2\n");
+        Path checkpointFile = dir.resolve("backfill.checkpoint");
+        properties.setCheckpointFile(checkpointFile.toString());
+        properties.setRatePerSecond(1000.0);
+        doThrow(new IllegalStateException(new InterruptedException()))
+                .when(generationService).processBlocking(any());
+
+        service.start(new BackfillRequest(ids.toString(), false));
+        BackfillStatus status = awaitFinished();
+
+        assertThat(status.state()).isEqualTo("STOPPED");
+        assertThat(status.position()).isZero();
+        assertThat(status.failed()).isZero();
+        assertThat(new BackfillCheckpointStore(checkpointFile).read("file:" + ids.toAbsolutePath())).isZero();
+    }
+
+    @Test
+    void failedTrackIsCountedAndSkipped() throws Exception {
+        Path ids = Files.writeString(dir.resolve("ids.txt"), "track-1\ntrack-2\n");
+        properties.setCheckpointFile(dir.resolve("backfill.checkpoint").toString());
+        properties.setRatePerSecond(1000.0);
+        doThrow(new TrackNotFoundException("track-1", null)).when(generationService).processBlocking(any());
+
+        service.start(new BackfillRequest(ids.toString(), false));
+        BackfillStatus status = awaitFinished();
+
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.position()).isEqualTo(2L);
+        assertThat(status.failed()).isEqualTo(2L);
+        assertThat(Files.readAllLines(dir.resolve("backfill.checkpoint.failed"))).containsExactly("track-1", "track-2");
+    }
+
+    @Test
+    void slowTrackHoldsPositionWhileOthersFinish() throws Exception {
+        Path ids = Files.writeString(dir.resolve("ids.txt"), "track-1\ntrack-2\ntrack-3\n");
+        properties.setCheckpointFile(dir.resolve("backfill.checkpoint").toString());
+        properties.setRatePerSecond(1000.0);
+        properties.setConcurrency(2);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(generationService).processBlocking(argThat(payload -> "track-1".equals(payload.trackId())));
+
+        service.start(new BackfillRequest(ids.toString(), false));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.status().processed() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(service.status().processed()).isEqualTo(2L);
+        assertThat(service.status().position()).isZero();
+        release.countDown();
+        BackfillStatus status = awaitFinished();
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.position()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsFailedIdsFileOfTheSameCheckpointAsSource() throws Exception {
+        Path checkpointFile = dir.resolve("backfill.checkpoint");
+        properties.setCheckpointFile(checkpointFile.toString());
+        Path failed = Files.writeString(dir.resolve("backfill.checkpoint.failed"), "track-1\n");
+
+        assertThatThrownBy(() -> service.start(new BackfillRequest(failed.toString(), false)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BackfillStatus awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        BackfillStatus status = service.status();
+        while ("RUNNING".equals(status.state()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.status();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.service.FactsGenerator.FactContent;
+
+class FactJsonRepairerTest {
+
+    private final FactJsonRepairer repairer = new FactJsonRepairer(new ObjectMapper());
+
+    @Test
+    void repairsProseFenceSingleQuotesTrailingCommaAndSingleSource() {
+        String raw = """
+                Вот факт о треке:
+                ```json
+                {'formatVersion': 1, 'lang': 'ru', 'short': "Короткий {факт}", 'full': 'Полный факт',
+                 'sources': {'title': 'Wiki', 'url': 'https://example.org'},}
+                ```
+                Надеюсь, это поможет!""";
+
+        Optional<FactContent> fact = repairer.repair(raw, f -> { });
+
+        assertThat(fact).isPresent();
+        assertThat(fact.get().shortFact()).isEqualTo("Короткий {факт}");
+        assertThat(fact.get().sources()).hasSize(1);
+        assertThat(fact.get().sources().getFirst().url()).isEqualTo("https://example.org");
+    }
+
+    @Test
+    void keepsCodeFenceInsideStringValues() {
+        String raw = """
+                ```json
+                {"formatVersion":1,"lang":"ru","short":"s","full":"Пример: ```js\\nplay()\\n``` в описании",
+                 "sources":[{"title":"Wiki","url":"https://example.org"},]}
+                ```""";
+
+        Optional<FactContent> fact = repairer.repair(raw, f -> { });
+
+        assertThat(fact).map(FactContent::full).contains("Пример: ```js\nplay()\n``` в описании");
+    }
+
+    @Test
+    void skipsCandidatesRejectedByValidator() {
+        String raw = """
+                {"note": "не факт"} и затем {"formatVersion":1,"lang":"ru","short":"s","full":"f","sources":[]}""";
+
+        Optional<FactContent> fact = repairer.repair(raw, f -> {
+            if (f.shortFact() == null) {
+                throw new IllegalArgumentException("short is missing");
+            }
+        });
+
+        assertThat(fact).map(FactContent::full).contains("f");
+    }
+
+    @Test
+    void givesUpOnTruncatedObject() {
+        assertThat(repairer.repair("{\"formatVersion\":1,\"short\":\"обрезано", f -> { })).isEmpty();
+    }
+}
@@ -9,7 +9,8 @@ import ru.itmo.music.facts.model.FactsEventPayload;
 class FactsEventsListenerTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final FactsEventsListener listener = new FactsEventsListener(objectMapper, Mockito.mock(FactsGenerationService.class));
+    private final FactsEventsListener listener = new FactsEventsListener(objectMapper,
+            Mockito.mock(FactsGenerationService.class), Mockito.mock(StartupMetrics.class));
 
     @Test
     void deserializeDoubleEncodedPayload() throws Exception {
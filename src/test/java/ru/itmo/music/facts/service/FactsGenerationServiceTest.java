@@ -0,0 +1,79 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.client.CompletionTokenBudget;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.client.ProxyApiClient;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.config.ProcessingProperties;
+import ru.itmo.music.facts.model.FactsEventPayload;
+import ru.itmo.music.facts.model.TrackMetadata;
+
+class FactsGenerationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MusicServiceClient musicServiceClient = mock(MusicServiceClient.class);
+    private final ProxyApiClient proxyApiClient = mock(ProxyApiClient.class);
+    private final FactsEventsPublisher publisher = mock(FactsEventsPublisher.class);
+    private final LlmProperties llmProperties = new LlmProperties();
+    private final ProcessingProperties processingProperties = new ProcessingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FactsGenerationService service = new FactsGenerationService(musicServiceClient,
+            new FactsGenerator(proxyApiClient, llmProperties, objectMapper, new FactJsonRepairer(objectMapper),
+                    meterRegistry, new CompletionTokenBudget(llmProperties, meterRegistry)),
+            publisher, processingProperties, meterRegistry);
+
+    @Test
+    void llmFailureAfterDeadlineBecomesDeadlineExceeded() {
+        processingProperties.setEventDeadlineMs(200L);
+        when(musicServiceClient.getTrack("track-1"))
+                .thenReturn(new TrackMetadata("track-1", "Song", "Artist", 180_000, 2001, false, null));
+        when(proxyApiClient.complete(anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            throw new IllegalStateException("ProxyAPI attempt timed out");
+        });
+
+        assertThatThrownBy(() -> service.processBlocking(payload(Instant.now())))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.counter("facts.events.deadline.exceeded").count()).isEqualTo(1.0);
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void staleEventIsRejectedBeforeAnyCall() {
+        processingProperties.setEventDeadlineMs(1_000L);
+
+        assertThatThrownBy(() -> service.processBlocking(payload(Instant.now().minusSeconds(5))))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(meterRegistry.counter("facts.events.deadline.exceeded").count()).isEqualTo(1.0);
+        verifyNoInteractions(musicServiceClient, proxyApiClient, publisher);
+    }
+
+    @Test
+    void llmFailureBeforeDeadlineIsRethrownAsIs() {
+        when(musicServiceClient.getTrack("track-1"))
+                .thenReturn(new TrackMetadata("track-1", "Song", "Artist", 180_000, 2001, false, null));
+        when(proxyApiClient.complete(anyList(), anyInt(), any())).thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> service.processBlocking(payload(Instant.now())))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThat(meterRegistry.counter("facts.events.deadline.exceeded").count()).isZero();
+    }
+
+    private static FactsEventPayload payload(Instant timestamp) {
+        return new FactsEventPayload("1", "created", "track-1", 0, timestamp);
+    }
+}
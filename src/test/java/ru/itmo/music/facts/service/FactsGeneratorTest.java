@@ -0,0 +1,163 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import ru.itmo.music.facts.client.CompletionTokenBudget;
+import ru.itmo.music.facts.client.ProxyApiClient;
+import ru.itmo.music.facts.client.ProxyApiClient.Completion;
+import ru.itmo.music.facts.client.ProxyApiClient.Message;
+import ru.itmo.music.facts.config.LlmProperties;
+import ru.itmo.music.facts.model.TrackMetadata;
+import ru.itmo.music.facts.service.FactsGenerator.GenerationResult;
+
+class FactsGeneratorTest {
+
+    private static final TrackMetadata TRACK = new TrackMetadata("track-1", "Song", "Artist", 180_000, 2001, false, null);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProxyApiClient proxyApiClient = Mockito.mock(ProxyApiClient.class);
+    private final LlmProperties properties = new LlmProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FactsGenerator generator = new FactsGenerator(proxyApiClient, properties, objectMapper,
+            new FactJsonRepairer(objectMapper), meterRegistry, new CompletionTokenBudget(properties, meterRegistry));
+
+    @Test
+    void splitsMultiLangResponseByLanguage() {
+        properties.getPrompt().setLangs(List.of("ru", "en"));
+        respond("""
+                {"facts":{"ru":%s,"en":%s}}""".formatted(fact("ru"), fact("en")));
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results).extracting(GenerationResult::lang).containsExactly("ru", "en");
+        assertThat(results.get(1).factsJson()).contains("\"lang\":\"en\"");
+        verify(proxyApiClient, times(1)).complete(anyList(), eq(1200), any());
+    }
+
+    @Test
+    void reRequestsMissingAndInvalidLanguagesAlone() {
+        properties.getPrompt().setLangs(List.of("ru", "en", "de"));
+        respond("""
+                {"facts":{"ru":%s,"en":{"formatVersion":1,"lang":"en","short":"s"}}}""".formatted(fact("ru")),
+                fact("en"), fact("de"));
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results).extracting(GenerationResult::lang).containsExactly("ru", "en", "de");
+        List<List<Message>> requests = captureRequests(3);
+        assertThat(requests.get(1).getFirst().content()).contains("\"lang\":\"en\"").doesNotContain("\"facts\"");
+        assertThat(requests.get(2).getFirst().content()).contains("\"lang\":\"de\"");
+    }
+
+    @Test
+    void rejectsWrongLanguageOnSingleLanguageReRequest() {
+        properties.getPrompt().setLangs(List.of("ru", "en"));
+        respond("""
+                {"facts":{"ru":%s}}""".formatted(fact("ru")), fact("ru"), fact("en"));
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results.get(1).factsJson()).contains("\"lang\":\"en\"");
+        List<List<Message>> requests = captureRequests(3);
+        assertThat(requests.get(2)).hasSize(3);
+        assertThat(outcome("lang_rerequest")).isEqualTo(1.0);
+        assertThat(outcome("retry")).isEqualTo(1.0);
+    }
+
+    @Test
+    void keepsSucceededLanguagesWhenReRequestFails() {
+        properties.getPrompt().setLangs(List.of("ru", "en"));
+        respond("""
+                {"facts":{"ru":%s}}""".formatted(fact("ru")), "не JSON", "не JSON");
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results).extracting(GenerationResult::lang).containsExactly("ru");
+        assertThat(meterRegistry.counter("facts.llm.lang.failed", "lang", "en").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void failsWhenNoLanguageSucceeded() {
+        properties.getPrompt().setLangs(List.of("ru", "en"));
+        respond("не JSON", "не JSON");
+
+        assertThatThrownBy(() -> generator.generateFacts(TRACK, "created", null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.counter("facts.llm.lang.failed", "lang", "ru").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("facts.llm.lang.failed", "lang", "en").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void repairsSingleLanguageResponseLocally() {
+        respond("Вот факт о треке: " + fact("ru") + " Надеюсь, это поможет!");
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results).extracting(GenerationResult::lang).containsExactly("ru");
+        assertThat(outcome("repaired")).isEqualTo(1.0);
+        assertThat(outcome("retry")).isZero();
+        verify(proxyApiClient, times(1)).complete(anyList(), anyInt(), any());
+    }
+
+    @Test
+    void failsAfterFormatRetriesWhenRepairIsImpossible() {
+        respond("не JSON", "{\"formatVersion\":1,\"short\":\"обрезано");
+
+        assertThatThrownBy(() -> generator.generateFacts(TRACK, "created", null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("invalid format");
+        assertThat(outcome("retry")).isEqualTo(1.0);
+        assertThat(outcome("failed")).isEqualTo(1.0);
+        Message retry = captureRequests(2).get(1).getLast();
+        assertThat(retry.role()).isEqualTo("user");
+        assertThat(retry.content()).contains("неверном формате");
+    }
+
+    @Test
+    void usesSingleLanguageRequestWhenLangsAreNotConfigured() {
+        respond(fact("ru"));
+
+        List<GenerationResult> results = generator.generateFacts(TRACK, "created", null);
+
+        assertThat(results).extracting(GenerationResult::lang).containsExactly("ru");
+        verify(proxyApiClient, times(1)).complete(anyList(), eq(600), any());
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.counter("facts.llm.format.outcome", "outcome", outcome).count();
+    }
+
+    private void respond(String first, String... next) {
+        Completion[] rest = new Completion[next.length];
+        for (int i = 0; i < next.length; i++) {
+            rest[i] = new Completion(next[i], null, "stop");
+        }
+        when(proxyApiClient.complete(anyList(), anyInt(), any())).thenReturn(new Completion(first, null, "stop"), rest);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Message>> captureRequests(int count) {
+        ArgumentCaptor<List<Message>> messages = ArgumentCaptor.forClass(List.class);
+        verify(proxyApiClient, times(count)).complete(messages.capture(), anyInt(), any());
+        return messages.getAllValues();
+    }
+
+    private static String fact(String lang) {
+        return """
+                {"formatVersion":1,"lang":"%s","short":"s","full":"f","sources":[{"title":"Wiki","url":"https://example.org"}]}"""
+                .formatted(lang);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileTrackIdSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void skipsBlankLinesInTotalAndIteration() throws Exception {
+        Path file = Files.writeString(dir.resolve("ids.txt"), "track-1\n\n  track-2  \n   \ntrack-3\n");
+
+        try (FileTrackIdSource source = new FileTrackIdSource(file)) {
+            assertThat(source.total()).isEqualTo(3L);
+            assertThat(source.next()).isEqualTo("track-1");
+            assertThat(source.next()).isEqualTo("track-2");
+            assertThat(source.next()).isEqualTo("track-3");
+            assertThat(source.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipResumesAfterConsumedIds() throws Exception {
+        Path file = Files.writeString(dir.resolve("ids.txt"), "track-1\n\ntrack-2\ntrack-3\n");
+
+        try (FileTrackIdSource source = new FileTrackIdSource(file)) {
+            source.skip(2);
+            assertThat(source.next()).isEqualTo("track-3");
+            assertThat(source.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipBeyondEndExhaustsSource() throws Exception {
+        Path file = Files.writeString(dir.resolve("ids.txt"), "track-1\n");
+
+        try (FileTrackIdSource source = new FileTrackIdSource(file)) {
+            source.skip(5);
+            assertThat(source.next()).isNull();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.model.TrackIdsPage;
+
+class MusicServiceTrackIdSourceTest {
+
+    private final MusicServiceClient client = mock(MusicServiceClient.class);
+
+    @Test
+    void walksPagesUntilShortPage() {
+        when(client.listTrackIds(0, 2)).thenReturn(new TrackIdsPage(List.of("a", "b"), 3L));
+        when(client.listTrackIds(1, 2)).thenReturn(new TrackIdsPage(List.of("c"), 3L));
+        MusicServiceTrackIdSource source = new MusicServiceTrackIdSource(client, 2);
+
+        assertThat(source.next()).isEqualTo("a");
+        assertThat(source.total()).isEqualTo(3L);
+        assertThat(source.next()).isEqualTo("b");
+        assertThat(source.next()).isEqualTo("c");
+        assertThat(source.next()).isNull();
+        verify(client, never()).listTrackIds(2, 2);
+    }
+
+    @Test
+    void skipJumpsToPageAndOffset() {
+        when(client.listTrackIds(2, 3)).thenReturn(new TrackIdsPage(List.of("g", "h", "i"), 10L));
+        when(client.listTrackIds(3, 3)).thenReturn(new TrackIdsPage(List.of("j"), 10L));
+        MusicServiceTrackIdSource source = new MusicServiceTrackIdSource(client, 3);
+
+        source.skip(7);
+
+        assertThat(source.next()).isEqualTo("h");
+        assertThat(source.next()).isEqualTo("i");
+        assertThat(source.next()).isEqualTo("j");
+        assertThat(source.next()).isNull();
+        verify(client, never()).listTrackIds(0, 3);
+    }
+
+    @Test
+    void skipOnPageBoundaryStartsAtNextPage() {
+        when(client.listTrackIds(1, 2)).thenReturn(new TrackIdsPage(List.of("c", "d"), 4L));
+        when(client.listTrackIds(2, 2)).thenReturn(new TrackIdsPage(List.of(), 4L));
+        MusicServiceTrackIdSource source = new MusicServiceTrackIdSource(client, 2);
+
+        source.skip(2);
+
+        assertThat(source.next()).isEqualTo("c");
+        assertThat(source.next()).isEqualTo("d");
+        assertThat(source.next()).isNull();
+    }
+
+    @Test
+    void skipPastEndReturnsNothing() {
+        when(client.listTrackIds(5, 2)).thenReturn(new TrackIdsPage(List.of(), 4L));
+        MusicServiceTrackIdSource source = new MusicServiceTrackIdSource(client, 2);
+
+        source.skip(10);
+
+        assertThat(source.next()).isNull();
+    }
+}
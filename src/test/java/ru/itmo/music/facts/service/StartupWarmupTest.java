@@ -0,0 +1,95 @@
+package ru.itmo.music.facts.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import ru.itmo.music.facts.client.MusicServiceClient;
+import ru.itmo.music.facts.client.ProxyApiClient;
+import ru.itmo.music.facts.config.KafkaTopicsProperties;
+import ru.itmo.music.facts.config.WarmupProperties;
+
+class StartupWarmupTest {
+
+    private final WarmupProperties warmupProperties = new WarmupProperties();
+    private final ProxyApiClient proxyApiClient = mock(ProxyApiClient.class);
+    private final MusicServiceClient musicServiceClient = mock(MusicServiceClient.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final StartupMetrics startupMetrics = mock(StartupMetrics.class);
+    private final StartupWarmup warmup = new StartupWarmup(warmupProperties, proxyApiClient, musicServiceClient,
+            new ObjectMapper().findAndRegisterModules(), kafkaTemplate, new KafkaTopicsProperties(), registry, startupMetrics);
+
+    @BeforeEach
+    void setUp() {
+        when(registry.getListenerContainer(FactsEventsListener.LISTENER_ID)).thenReturn(container);
+    }
+
+    @Test
+    void startsListenerAfterWarmUp() {
+        warmup.run(mock(ApplicationArguments.class));
+
+        verify(proxyApiClient).warmUp();
+        verify(musicServiceClient).getTrack("warmup");
+        verify(startupMetrics).recordWarmup(any());
+        verify(container).start();
+    }
+
+    @Test
+    void startsListenerWhenWarmUpIsDisabled() {
+        warmupProperties.setEnabled(false);
+
+        warmup.run(mock(ApplicationArguments.class));
+
+        verify(proxyApiClient, never()).warmUp();
+        verify(container).start();
+    }
+
+    @Test
+    void startsListenerWhenStepFails() {
+        doThrow(new IllegalStateException("PROXYAPI_API_KEY is not configured")).when(proxyApiClient).warmUp();
+
+        warmup.run(mock(ApplicationArguments.class));
+
+        verify(container).start();
+    }
+
+    @Test
+    void startsListenerWhenWarmUpTimesOut() {
+        warmupProperties.setTimeoutMs(100L);
+        when(kafkaTemplate.partitionsFor(any())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        long startedNanos = System.nanoTime();
+        warmup.run(mock(ApplicationArguments.class));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedNanos)).isLessThan(Duration.ofSeconds(2));
+        verify(container).start();
+    }
+
+    @Test
+    void doesNotRestartRunningListener() {
+        warmupProperties.setEnabled(false);
+        when(container.isRunning()).thenReturn(true);
+
+        warmup.run(mock(ApplicationArguments.class));
+
+        verify(container, never()).start();
+    }
+}